@@ -0,0 +1,105 @@
+// JVM benchmarks of the Litho filter search code.
+// Run with: ./gradlew :extensions:shared:benchmark:jmh
+// Measure the search code with the components of a capture file:
+// ./gradlew :extensions:shared:benchmark:replay -Pcapture=<file>
+// The replay is a search micro-benchmark. It uses the benchmark filters, not the filters of the app,
+// so it does not show which components the app hides.
+// Check that all search variants find the same matches, and test the other JVM safe filter code with:
+// ./gradlew :extensions:shared:benchmark:test
+//
+// The Android independent filter sources are compiled from the shared extension,
+// together with JVM replacements of the few Android dependent classes they use (src/main/java).
+// BaseSettings is generated from the boolean settings of the shared extension.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+val syncSharedSources by tasks.registering(Sync::class) {
+    from(project(":extensions:shared").file("src/main/java")) {
+        include("app/revanced/extension/shared/utils/*TrieSearch.java")
+        include("app/revanced/extension/shared/utils/ProtobufReader.java")
+        include("app/revanced/extension/shared/patches/components/*.java")
+        include("app/revanced/extension/shared/settings/BooleanSetting.java")
+        // Uses the Android app files folder.
+        exclude("app/revanced/extension/shared/patches/components/LithoFilterCapture.java")
+        // Same as the Litho filter patch, but with the benchmark filters.
+        filter { line ->
+            line.replace(
+                "new DummyFilter() // Replaced by patch.",
+                "new app.revanced.extension.shared.benchmark.BenchmarkFilters.LayoutFilter(), " +
+                        "new app.revanced.extension.shared.benchmark.BenchmarkFilters.BufferFilter()"
+            )
+        }
+    }
+    into(layout.buildDirectory.dir("generated/sources/shared"))
+}
+
+val generateBaseSettings by tasks.registering {
+    val source = project(":extensions:shared")
+        .file("src/main/java/app/revanced/extension/shared/settings/BaseSettings.java")
+    val outputDir = layout.buildDirectory.dir("generated/sources/settings")
+    inputs.file(source)
+    outputs.dir(outputDir)
+
+    doLast {
+        // Other setting types depend on app classes, and are not used by the filters.
+        val declaration = Regex("""public static final BooleanSetting \w+\s*=\s*new BooleanSetting\([^;]*\);""")
+        val settings = declaration.findAll(source.readText()).joinToString("\n") { "    " + it.value }
+        check(settings.isNotEmpty()) { "No boolean settings found in: $source" }
+
+        val file = outputDir.get().file("app/revanced/extension/shared/settings/BaseSettings.java").asFile
+        file.parentFile.mkdirs()
+        file.writeText(
+            "package app.revanced.extension.shared.settings;\n\n" +
+                    "import static app.revanced.extension.shared.settings.Setting.*;\n" +
+                    "import static java.lang.Boolean.FALSE;\n" +
+                    "import static java.lang.Boolean.TRUE;\n\n" +
+                    "// Generated from the boolean settings of the shared extension BaseSettings.\n" +
+                    "public class BaseSettings {\n" +
+                    settings + "\n" +
+                    "}\n"
+        )
+    }
+}
+
+sourceSets {
+    main {
+        java.srcDir(syncSharedSources)
+        java.srcDir(generateBaseSettings)
+    }
+}
+
+dependencies {
+    compileOnly(libs.annotation)
+    implementation(libs.json)
+
+    testCompileOnly(libs.annotation)
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.junit.jupiter)
+    testRuntimeOnly(libs.junit.platform.launcher)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+}
+
+tasks.register<JavaExec>("replay") {
+    description = "Measure the Litho filter search with the components of a capture file"
+
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("app.revanced.extension.shared.benchmark.LithoFilterReplay")
+    providers.gradleProperty("capture").orNull?.let { args(it) }
+}
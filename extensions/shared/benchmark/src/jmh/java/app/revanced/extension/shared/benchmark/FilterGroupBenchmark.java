@@ -0,0 +1,83 @@
+package app.revanced.extension.shared.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
+import app.revanced.extension.shared.patches.components.StringFilterGroup;
+import app.revanced.extension.shared.patches.components.StringFilterGroupList;
+
+/**
+ * Filter group searches, as used by the filters to check paths and buffers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterGroupBenchmark {
+
+    /**
+     * Capture file to use, or empty to use generated components.
+     */
+    @Param({""})
+    public String captureFile;
+
+    @Param({"1000"})
+    public int corpusSize;
+
+    private List<BenchmarkCorpus.Component> corpus;
+
+    /**
+     * Single group that searches for all keywords using KMP, one keyword at a time.
+     */
+    private ByteArrayFilterGroup bufferGroup;
+    private ByteArrayFilterGroupList bufferGroupList;
+    private StringFilterGroupList pathGroupList;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.loadOrGenerate(captureFile, corpusSize);
+
+        bufferGroup = new ByteArrayFilterGroup(null, BenchmarkCorpus.BUFFER_KEYWORDS);
+        bufferGroupList = new ByteArrayFilterGroupList();
+        for (String keyword : BenchmarkCorpus.BUFFER_KEYWORDS) {
+            bufferGroupList.addAll(new ByteArrayFilterGroup(null, keyword));
+        }
+        pathGroupList = new StringFilterGroupList();
+        for (String component : BenchmarkCorpus.FILTERED_COMPONENTS) {
+            pathGroupList.addAll(new StringFilterGroup(null, component));
+        }
+    }
+
+    @Benchmark
+    public void byteArrayFilterGroup(Blackhole blackhole) {
+        for (BenchmarkCorpus.Component component : corpus) {
+            blackhole.consume(bufferGroup.check(component.buffer).isFiltered());
+        }
+    }
+
+    @Benchmark
+    public void byteArrayFilterGroupList(Blackhole blackhole) {
+        for (BenchmarkCorpus.Component component : corpus) {
+            blackhole.consume(bufferGroupList.check(component.buffer).isFiltered());
+        }
+    }
+
+    @Benchmark
+    public void stringFilterGroupList(Blackhole blackhole) {
+        for (BenchmarkCorpus.Component component : corpus) {
+            blackhole.consume(pathGroupList.check(component.path).isFiltered());
+        }
+    }
+}
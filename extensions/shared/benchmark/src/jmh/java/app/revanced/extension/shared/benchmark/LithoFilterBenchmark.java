@@ -0,0 +1,76 @@
+package app.revanced.extension.shared.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
+
+/**
+ * Replays the corpus through the Litho filter injection points,
+ * in the same order the app calls them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LithoFilterBenchmark {
+
+    /**
+     * Capture file to use, or empty to use generated components.
+     */
+    @Param({""})
+    public String captureFile;
+
+    @Param({"1000"})
+    public int corpusSize;
+
+    /**
+     * If the buffers are direct buffers, as used by newer app versions.
+     */
+    @Param({"false", "true"})
+    public boolean directBuffers;
+
+    private List<BenchmarkCorpus.Component> corpus;
+    private ByteBuffer[] buffers;
+    private StringBuilder[] paths;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.loadOrGenerate(captureFile, corpusSize);
+
+        final int size = corpus.size();
+        buffers = new ByteBuffer[size];
+        paths = new StringBuilder[size];
+        for (int i = 0; i < size; i++) {
+            BenchmarkCorpus.Component component = corpus.get(i);
+            byte[] array = component.buffer;
+            if (directBuffers) {
+                buffers[i] = ByteBuffer.allocateDirect(array.length).put(array);
+                buffers[i].flip();
+            } else {
+                buffers[i] = ByteBuffer.wrap(array);
+            }
+            paths[i] = new StringBuilder(component.path);
+        }
+    }
+
+    @Benchmark
+    public void filter(Blackhole blackhole) {
+        for (int i = 0, size = paths.length; i < size; i++) {
+            BenchmarkCorpus.Component component = corpus.get(i);
+            LithoFilterPatch.setProtoBuffer(buffers[i]);
+            blackhole.consume(LithoFilterPatch.filter(paths[i], component.identifier, component.allValue));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package app.revanced.extension.shared.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.StringTrieSearch;
+
+/**
+ * Compares the trie variants by searching every path and buffer of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrieSearchBenchmark {
+
+    /**
+     * plain: Trie walk from every start index.
+     * automaton: Aho-Corasick automaton.
+     * frozen: Aho-Corasick automaton compiled into flat arrays.
+     */
+    @Param({"plain", "automaton", "frozen"})
+    public String variant;
+
+    /**
+     * Capture file to use, or empty to use generated components.
+     */
+    @Param({""})
+    public String captureFile;
+
+    @Param({"1000"})
+    public int corpusSize;
+
+    private List<BenchmarkCorpus.Component> corpus;
+    private StringTrieSearch pathSearch;
+    private ByteTrieSearch bufferSearch;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.loadOrGenerate(captureFile, corpusSize);
+
+        final boolean useAutomaton = !variant.equals("plain");
+        pathSearch = new StringTrieSearch(useAutomaton, BenchmarkCorpus.FILTERED_COMPONENTS);
+        bufferSearch = new ByteTrieSearch(useAutomaton,
+                ByteTrieSearch.convertStringsToBytes(BenchmarkCorpus.BUFFER_KEYWORDS));
+        if (variant.equals("frozen")) {
+            pathSearch.freeze();
+            bufferSearch.freeze();
+        }
+        // Otherwise the automaton is built by the first search, during the warmup iterations.
+    }
+
+    @Benchmark
+    public void searchPaths(Blackhole blackhole) {
+        for (BenchmarkCorpus.Component component : corpus) {
+            blackhole.consume(pathSearch.matches(component.path));
+        }
+    }
+
+    @Benchmark
+    public void searchBuffers(Blackhole blackhole) {
+        for (BenchmarkCorpus.Component component : corpus) {
+            blackhole.consume(bufferSearch.matches(component.buffer));
+        }
+    }
+}
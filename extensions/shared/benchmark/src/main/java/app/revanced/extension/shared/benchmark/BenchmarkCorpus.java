@@ -0,0 +1,165 @@
+package app.revanced.extension.shared.benchmark;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import app.revanced.extension.shared.patches.components.LithoFilterCaptureFile;
+
+/**
+ * Litho components to filter.
+ * <p>
+ * Components are either loaded from a {@link LithoFilterCaptureFile}, or generated from a fixed seed
+ * so every run uses the same paths and buffers. Generated components use real YouTube component names,
+ * and roughly half of them are filtered by {@link BenchmarkFilters}.
+ */
+public final class BenchmarkCorpus {
+
+    /**
+     * Component names that {@link BenchmarkFilters} searches for.
+     */
+    static final String[] FILTERED_COMPONENTS = {
+            "alert_banner_promo.eml", "brand_video_shelf.eml", "brand_video_singleton.eml",
+            "carousel_footered_layout.eml", "channel_profile.eml", "compact_landscape_image_layout.eml",
+            "featured_channel_watermark_overlay.eml", "full_width_portrait_image_layout.eml",
+            "full_width_square_image_layout.eml", "gaming_section.eml", "horizontal_shelf_inline.eml",
+            "horizontal_tile_shelf.eml", "how_this_was_made_section.eml", "info_card_teaser_overlay.eml",
+            "infocards_section.eml", "inline_injection_entrypoint_layout.eml", "landscape_image_wide_button_layout.eml",
+            "library_recent_shelf.eml", "live_chat_ep_entrypoint.eml", "macro_markers_carousel.eml",
+            "mini_game_card.eml", "music_section.eml", "place_section.eml", "reel_player_disclosure.eml",
+            "shopping_item_card_list.eml", "square_image_layout.eml", "statement_banner.eml",
+            "sponsorships_comments_footer.eml", "sponsorships_comments_header.eml", "stickers_layer.eml",
+            "text_image_button_group_layout.eml", "text_image_no_button_layout.eml", "transcript_section.eml",
+            "video_attributes_section.eml", "video_metadata_carousel.eml",
+    };
+
+    /**
+     * Component names that are never filtered.
+     */
+    static final String[] OTHER_COMPONENTS = {
+            "account_header.eml", "avatar.eml", "cell_button.eml", "comment_thread.eml", "compact_video.eml",
+            "expandable_metadata.eml", "horizontal_video_shelf.eml", "immersive_live_header.eml",
+            "metadata.eml", "modern_type_shelf_header_content.eml", "overflow_button.eml", "page_header.eml",
+            "playlist_section.eml", "quick_actions.eml", "reel_channel_bar.eml", "reel_metapanel.eml",
+            "selectable_item.eml", "shelf_header.eml", "shorts_lockup_cell.eml", "shorts_pivot_item.eml",
+            "thumbnail.eml", "video_action_bar.eml", "video_card.eml", "video_display_full_layout.eml",
+            "video_lockup_with_attachment.eml", "ContainerType", "CellType", "LazyRenderType",
+    };
+
+    /**
+     * Identifiers that {@link BenchmarkFilters} searches for.
+     */
+    static final String[] FILTERED_IDENTIFIERS = {
+            "chips_shelf", "expandable_list", "horizontal_shelf", "inline_expander", "chip_bar",
+    };
+
+    static final String[] OTHER_IDENTIFIERS = {
+            "feed_header", "video_metadata", "watch_next", "comments_entry_point", "related_header",
+    };
+
+    /**
+     * Words that are embedded in the buffers, and searched for by {@link BenchmarkFilters}.
+     */
+    static final String[] BUFFER_KEYWORDS = {
+            "PAwzI-4WtHx", "yt_outline_bag", "yt_outline_experimental_gift", "youtube_music_logo",
+            "shopping_carousel", "fullscreen_ui_bottom_sheet", "Shorts remix",
+    };
+
+    private static final String[] ROOT_COMPONENTS = {
+            "home_layout.eml|", "watch_next_results.eml|", "library.eml|", "search_results.eml|", "reel_watch.eml|",
+    };
+
+    public static final class Component {
+        public final String path;
+        @Nullable
+        public final String identifier;
+        public final String allValue;
+        public final byte[] buffer;
+
+        public Component(String path, @Nullable String identifier, String allValue, byte[] buffer) {
+            this.path = path;
+            this.identifier = identifier;
+            this.allValue = allValue;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * @param captureFile A capture file saved by the app, or an empty string to generate the components.
+     * @param size        Number of components to generate.
+     */
+    public static List<Component> loadOrGenerate(String captureFile, int size) throws IOException {
+        return captureFile.isEmpty()
+                ? generate(size, 0)
+                : load(new File(captureFile));
+    }
+
+    public static List<Component> load(File captureFile) throws IOException {
+        List<Component> components = new ArrayList<>();
+        try (LithoFilterCaptureFile.Reader reader = new LithoFilterCaptureFile.Reader(new FileInputStream(captureFile))) {
+            LithoFilterCaptureFile.Component component;
+            while ((component = reader.next()) != null) {
+                components.add(new Component(component.path, component.identifier, component.allValue, component.buffer));
+            }
+        }
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @param size Number of components to generate.
+     * @param seed Random seed.
+     */
+    public static List<Component> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Component> components = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String path = randomPath(random);
+            components.add(new Component(path, randomIdentifier(random), path, randomBuffer(random)));
+        }
+        return Collections.unmodifiableList(components);
+    }
+
+    private static String randomPath(Random random) {
+        StringBuilder path = new StringBuilder(200);
+        path.append(ROOT_COMPONENTS[random.nextInt(ROOT_COMPONENTS.length)]);
+        final int depth = 3 + random.nextInt(8);
+        for (int i = 0; i < depth; i++) {
+            // Most path elements are not filtered.
+            String[] names = random.nextInt(12) == 0 ? FILTERED_COMPONENTS : OTHER_COMPONENTS;
+            path.append(names[random.nextInt(names.length)]).append('|');
+        }
+        return path.toString();
+    }
+
+    @Nullable
+    private static String randomIdentifier(Random random) {
+        final int value = random.nextInt(10);
+        if (value < 5) {
+            return null;
+        }
+        if (value == 5) {
+            return FILTERED_IDENTIFIERS[random.nextInt(FILTERED_IDENTIFIERS.length)];
+        }
+        return OTHER_IDENTIFIERS[random.nextInt(OTHER_IDENTIFIERS.length)];
+    }
+
+    private static byte[] randomBuffer(Random random) {
+        byte[] buffer = new byte[200 + random.nextInt(1800)];
+        random.nextBytes(buffer);
+        if (random.nextInt(4) == 0) {
+            byte[] keyword = BUFFER_KEYWORDS[random.nextInt(BUFFER_KEYWORDS.length)].getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(keyword, 0, buffer, random.nextInt(buffer.length - keyword.length), keyword.length);
+        }
+        return buffer;
+    }
+
+    private BenchmarkCorpus() {
+    }
+}
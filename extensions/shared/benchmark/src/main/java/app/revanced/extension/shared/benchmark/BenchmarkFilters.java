@@ -0,0 +1,68 @@
+package app.revanced.extension.shared.benchmark;
+
+import androidx.annotation.Nullable;
+
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
+import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.StringFilterGroup;
+
+/**
+ * Filters used by the benchmark build of the Litho filter patch,
+ * in place of the filters added by the patch.
+ */
+public final class BenchmarkFilters {
+
+    /**
+     * Filters components only by identifier and path, and can use the verdict cache.
+     */
+    public static final class LayoutFilter extends Filter {
+        public LayoutFilter() {
+            addIdentifierCallbacks(new StringFilterGroup(null, BenchmarkCorpus.FILTERED_IDENTIFIERS));
+
+            String[] components = BenchmarkCorpus.FILTERED_COMPONENTS;
+            final int half = components.length / 2;
+            String[] first = new String[half];
+            String[] second = new String[components.length - half];
+            System.arraycopy(components, 0, first, 0, first.length);
+            System.arraycopy(components, half, second, 0, second.length);
+            addPathCallbacks(new StringFilterGroup(null, first), new StringFilterGroup(null, second));
+        }
+
+        @Override
+        protected boolean isCacheable() {
+            return true;
+        }
+    }
+
+    /**
+     * Searches the buffer of common components, similar to the description and Shorts filters.
+     */
+    public static final class BufferFilter extends Filter {
+        private final StringFilterGroup bufferComponents;
+        private final ByteArrayFilterGroupList bufferGroupList = new ByteArrayFilterGroupList();
+
+        public BufferFilter() {
+            bufferComponents = new StringFilterGroup(null,
+                    "video_lockup_with_attachment.eml", "shorts_lockup_cell.eml", "reel_metapanel.eml");
+            addPathCallbacks(bufferComponents);
+
+            String[] keywords = BenchmarkCorpus.BUFFER_KEYWORDS;
+            for (String keyword : keywords) {
+                bufferGroupList.addAll(new ByteArrayFilterGroup(null, keyword));
+            }
+        }
+
+        @Override
+        public boolean isFiltered(String path, @Nullable String identifier, String allValue, byte[] protobufBufferArray,
+                                  StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
+            if (matchedGroup == bufferComponents && !bufferGroupList.check(protobufBufferArray).isFiltered()) {
+                return false;
+            }
+            return super.isFiltered(path, identifier, allValue, protobufBufferArray, matchedGroup, contentType, contentIndex);
+        }
+    }
+
+    private BenchmarkFilters() {
+    }
+}
@@ -0,0 +1,83 @@
+package app.revanced.extension.shared.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
+
+/**
+ * Search micro-benchmark of the Litho filter patch, using the components of a capture file.
+ * Reports the throughput and latency of {@link LithoFilterPatch#filter(StringBuilder, String, Object)}.
+ * <p>
+ * The benchmark build has only the synthetic {@link BenchmarkFilters}, since the filters of the app
+ * depend on Android classes. The captured components measure the search code (verdict cache,
+ * search trees and buffer scan) with real identifiers, paths and buffers,
+ * but do not show if the filters of the app hide a component.
+ * <p>
+ * Usage: LithoFilterReplay [capture file]
+ * <br>
+ * Without a capture file, generated components are used.
+ */
+public final class LithoFilterReplay {
+    /**
+     * Number of times the capture is replayed before measuring, so the JIT compiles the filters.
+     */
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        String captureFile = args.length > 0 ? args[0] : "";
+
+        List<BenchmarkCorpus.Component> components = BenchmarkCorpus.loadOrGenerate(captureFile, 10_000);
+        if (components.isEmpty()) {
+            System.out.println("No components in capture file: " + new File(captureFile).getAbsolutePath());
+            return;
+        }
+
+        final int size = components.size();
+        long[] latencies = new long[size * MEASURED_ROUNDS];
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            replay(components, null, 0);
+        }
+        final long startTime = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            replay(components, latencies, round * size);
+        }
+        final long totalTime = System.nanoTime() - startTime;
+
+        Arrays.sort(latencies);
+        System.out.println("Components: " + size);
+        System.out.println(String.format(Locale.US, "Throughput: %.0f components/s",
+                (double) size * MEASURED_ROUNDS * 1_000_000_000 / totalTime));
+        System.out.println(String.format(Locale.US, "Latency ns: p50 %d  p90 %d  p99 %d  p99.9 %d  max %d",
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1]));
+    }
+
+    private static void replay(List<BenchmarkCorpus.Component> components, long[] latencies, int latencyOffset) {
+        for (int i = 0, size = components.size(); i < size; i++) {
+            BenchmarkCorpus.Component component = components.get(i);
+            // Setting the buffer is part of the app flow, but not part of filtering.
+            LithoFilterPatch.setProtoBuffer(ByteBuffer.wrap(component.buffer));
+            StringBuilder path = new StringBuilder(component.path);
+
+            final long startTime = System.nanoTime();
+            LithoFilterPatch.filter(path, component.identifier, component.allValue);
+            if (latencies != null) {
+                latencies[latencyOffset + i] = System.nanoTime() - startTime;
+            }
+        }
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        return sortedValues[(int) Math.min(sortedValues.length - 1, Math.round(percentile * sortedValues.length))];
+    }
+
+    private LithoFilterReplay() {
+    }
+}
@@ -0,0 +1,16 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.Nullable;
+
+/**
+ * JVM replacement of the Litho filter capture. Nothing is captured.
+ */
+final class LithoFilterCapture {
+    static boolean isEnabled() {
+        return false;
+    }
+
+    static void capture(StringBuilder pathBuilder, @Nullable String identifier, Object object,
+                        byte[] bufferArray, int bufferLength) {
+    }
+}
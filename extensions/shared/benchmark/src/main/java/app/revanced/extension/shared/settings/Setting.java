@@ -0,0 +1,147 @@
+package app.revanced.extension.shared.settings;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Objects;
+
+import app.revanced.extension.shared.settings.preference.SharedPrefCategory;
+
+/**
+ * JVM replacement of the shared preferences backed setting.
+ * <p>
+ * Has the same constructors and abstract methods as the app class,
+ * so the setting classes of the shared extension are compiled without changes.
+ * Import, export and the settings registry are not included.
+ */
+@SuppressWarnings("unused")
+public abstract class Setting<T> {
+
+    public interface Availability {
+        boolean isAvailable();
+    }
+
+    @NonNull
+    public static Availability parent(@NonNull BooleanSetting parent) {
+        return parent::get;
+    }
+
+    @NonNull
+    public static Availability parentsAll(@NonNull BooleanSetting... parents) {
+        return () -> {
+            for (BooleanSetting parent : parents) {
+                if (!parent.get()) return false;
+            }
+            return true;
+        };
+    }
+
+    @NonNull
+    public static Availability parentsAny(@NonNull BooleanSetting... parents) {
+        return () -> {
+            for (BooleanSetting parent : parents) {
+                if (parent.get()) return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Preference all instances are saved to. Values are kept only in memory.
+     */
+    public static final SharedPrefCategory preferences = new SharedPrefCategory("revanced");
+
+    @NonNull
+    public final String key;
+    @NonNull
+    public final T defaultValue;
+    public final boolean rebootApp;
+    public final boolean includeWithImportExport;
+    @Nullable
+    private final Availability availability;
+
+    @NonNull
+    protected volatile T value;
+
+    public Setting(String key, T defaultValue) {
+        this(key, defaultValue, false, true, null, null);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp) {
+        this(key, defaultValue, rebootApp, true, null, null);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp, boolean includeWithImportExport) {
+        this(key, defaultValue, rebootApp, includeWithImportExport, null, null);
+    }
+
+    public Setting(String key, T defaultValue, String userDialogMessage) {
+        this(key, defaultValue, false, true, userDialogMessage, null);
+    }
+
+    public Setting(String key, T defaultValue, Availability availability) {
+        this(key, defaultValue, false, true, null, availability);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp, String userDialogMessage) {
+        this(key, defaultValue, rebootApp, true, userDialogMessage, null);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp, Availability availability) {
+        this(key, defaultValue, rebootApp, true, null, availability);
+    }
+
+    public Setting(String key, T defaultValue, boolean rebootApp, String userDialogMessage, Availability availability) {
+        this(key, defaultValue, rebootApp, true, userDialogMessage, availability);
+    }
+
+    public Setting(@NonNull String key,
+                   @NonNull T defaultValue,
+                   boolean rebootApp,
+                   boolean includeWithImportExport,
+                   @Nullable String userDialogMessage,
+                   @Nullable Availability availability
+    ) {
+        this.key = Objects.requireNonNull(key);
+        this.value = this.defaultValue = Objects.requireNonNull(defaultValue);
+        this.rebootApp = rebootApp;
+        this.includeWithImportExport = includeWithImportExport;
+        this.availability = availability;
+
+        load();
+    }
+
+    protected abstract void setValueFromString(@NonNull String newValue);
+
+    protected abstract void load();
+
+    public abstract void save(@NonNull T newValue);
+
+    public abstract void saveValueFromString(@NonNull String newValue);
+
+    @NonNull
+    public abstract T get();
+
+    public void resetToDefault() {
+        save(defaultValue);
+    }
+
+    public boolean isAvailable() {
+        return availability == null || availability.isAvailable();
+    }
+
+    public boolean isSetToDefault() {
+        return value.equals(defaultValue);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return key + "=" + get();
+    }
+
+    protected abstract T readFromJSON(JSONObject json, String importExportKey) throws JSONException;
+}
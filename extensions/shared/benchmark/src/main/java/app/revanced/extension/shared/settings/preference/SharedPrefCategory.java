@@ -0,0 +1,49 @@
+package app.revanced.extension.shared.settings.preference;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JVM replacement of the shared preferences category. Values are kept only in memory.
+ */
+@SuppressWarnings("unused")
+public class SharedPrefCategory {
+    @NonNull
+    public final String name;
+    private final Map<String, Object> preferences = new ConcurrentHashMap<>();
+
+    public SharedPrefCategory(@NonNull String name) {
+        this.name = Objects.requireNonNull(name);
+    }
+
+    public void removeKey(@NonNull String key) {
+        preferences.remove(Objects.requireNonNull(key));
+    }
+
+    public void saveBoolean(@NonNull String key, boolean value) {
+        preferences.put(key, value);
+    }
+
+    public void saveString(@NonNull String key, @Nullable String value) {
+        if (value == null) {
+            removeKey(key);
+        } else {
+            preferences.put(key, value);
+        }
+    }
+
+    public boolean getBoolean(@NonNull String key, boolean _default) {
+        Object value = preferences.get(key);
+        return value instanceof Boolean ? (Boolean) value : _default;
+    }
+
+    @NonNull
+    public String getString(@NonNull String key, @NonNull String _default) {
+        Object value = preferences.get(key);
+        return value instanceof String ? (String) value : _default;
+    }
+}
@@ -0,0 +1,56 @@
+package app.revanced.extension.shared.utils;
+
+import static app.revanced.extension.shared.settings.BaseSettings.ENABLE_DEBUG_LOGGING;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.PrintStream;
+
+/**
+ * JVM replacement of the logcat logger.
+ */
+@SuppressWarnings("unused")
+public class Logger {
+
+    /**
+     * Log messages using lambdas.
+     */
+    public interface LogMessage {
+        @NonNull
+        String buildMessageString();
+    }
+
+    public static void printDebug(@NonNull LogMessage message) {
+        printDebug(message, null);
+    }
+
+    public static void printDebug(@NonNull LogMessage message, @Nullable Exception ex) {
+        if (ENABLE_DEBUG_LOGGING.get()) {
+            print(System.out, message, ex);
+        }
+    }
+
+    public static void printInfo(@NonNull LogMessage message) {
+        printInfo(message, null);
+    }
+
+    public static void printInfo(@NonNull LogMessage message, @Nullable Exception ex) {
+        print(System.out, message, ex);
+    }
+
+    public static void printException(@NonNull LogMessage message) {
+        printException(message, null);
+    }
+
+    public static void printException(@NonNull LogMessage message, @Nullable Throwable ex) {
+        print(System.err, message, ex);
+    }
+
+    private static void print(PrintStream stream, LogMessage message, @Nullable Throwable ex) {
+        stream.println(message.buildMessageString());
+        if (ex != null) {
+            ex.printStackTrace(stream);
+        }
+    }
+}
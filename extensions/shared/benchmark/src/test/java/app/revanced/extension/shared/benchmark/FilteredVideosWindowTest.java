@@ -0,0 +1,89 @@
+package app.revanced.extension.shared.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import app.revanced.extension.shared.patches.components.FilteredVideosWindow;
+
+/**
+ * Checks that a filter hiding all videos is detected by the number of videos, and not by how fast videos are seen.
+ */
+public class FilteredVideosWindowTest {
+
+    private static final int SAMPLE_SIZE = 50;
+    private static final int THRESHOLD_PERCENTAGE = 95;
+    private static final long BACKOFF_MILLISECONDS = 60 * 1000;
+
+    private static FilteredVideosWindow createWindow() {
+        return new FilteredVideosWindow(SAMPLE_SIZE, THRESHOLD_PERCENTAGE, BACKOFF_MILLISECONDS);
+    }
+
+    /**
+     * @return Number of videos recorded until the threshold was passed, or -1 if never passed.
+     */
+    private static int recordUntilDetected(FilteredVideosWindow window, int count, boolean hidden) {
+        for (int i = 1; i <= count; i++) {
+            if (window.record(hidden)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void slowScrollingIsDetected() {
+        FilteredVideosWindow window = createWindow();
+        // One hidden video every 10 seconds, so the sample size takes much longer than the backoff time.
+        long now = 0;
+        int detectedVideo = -1;
+        for (int i = 1; i <= SAMPLE_SIZE; i++) {
+            now += 10_000;
+            if (window.record(true)) {
+                detectedVideo = i;
+                break;
+            }
+        }
+        assertEquals(SAMPLE_SIZE, detectedVideo, "slow scrolling detected");
+
+        assertTrue(window.startBackoff(now), "backoff started");
+        assertFalse(window.startBackoff(now), "backoff already started");
+        assertTrue(window.isBackingOff(now + BACKOFF_MILLISECONDS - 1), "backing off");
+        assertFalse(window.isBackingOff(now + BACKOFF_MILLISECONDS), "backoff ended");
+
+        // Counts are cleared after the backoff, so a full sample is needed again.
+        assertEquals(SAMPLE_SIZE, recordUntilDetected(window, SAMPLE_SIZE, true), "detected again after backoff");
+    }
+
+    @Test
+    public void fewerVideosThanSampleSizeAreNotDetected() {
+        FilteredVideosWindow window = createWindow();
+        assertEquals(-1, recordUntilDetected(window, SAMPLE_SIZE - 1, true), "not detected before a full sample");
+    }
+
+    @Test
+    public void onlyTheMostRecentVideosAreCounted() {
+        FilteredVideosWindow window = createWindow();
+        assertEquals(-1, recordUntilDetected(window, SAMPLE_SIZE * 3, false), "shown videos not detected");
+
+        // 48 of the last 50 videos hidden is 96%, and 47 is 94%.
+        assertEquals(48, recordUntilDetected(window, SAMPLE_SIZE, true), "detected when over the threshold");
+    }
+
+    @Test
+    public void shownVideoIsNeverDetected() {
+        FilteredVideosWindow window = createWindow();
+        recordUntilDetected(window, SAMPLE_SIZE * 2, true);
+        assertFalse(window.record(false), "shown video does not start the backoff");
+    }
+
+    @Test
+    public void resetClearsCounts() {
+        FilteredVideosWindow window = createWindow();
+        recordUntilDetected(window, SAMPLE_SIZE - 1, true);
+        window.reset();
+        assertEquals(SAMPLE_SIZE, recordUntilDetected(window, SAMPLE_SIZE, true), "full sample needed after reset");
+    }
+}
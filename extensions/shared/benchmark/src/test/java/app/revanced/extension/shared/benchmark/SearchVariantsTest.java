@@ -0,0 +1,175 @@
+package app.revanced.extension.shared.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
+import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.StringTrieSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
+
+/**
+ * Checks that every search variant finds exactly the same matches as a simple search of each pattern.
+ */
+public class SearchVariantsTest {
+
+    private static final String[] VARIANTS = {"plain", "plain frozen", "automaton", "automaton frozen"};
+
+    /**
+     * Patterns that overlap, are prefixes or suffixes of each other, or are a single character.
+     */
+    private static final String[] OVERLAPPING_PATTERNS = {
+            "a", "ab", "abab", "bab", "aab", "b|a", "|", "eml|", ".eml", "shelf", "shelf_header",
+    };
+
+    private static final String ALPHABET = "ab|.emlshf_";
+
+    private static List<String> patterns() {
+        Set<String> patterns = new LinkedHashSet<>(Arrays.asList(OVERLAPPING_PATTERNS));
+        patterns.addAll(Arrays.asList(BenchmarkCorpus.FILTERED_COMPONENTS));
+        patterns.addAll(Arrays.asList(BenchmarkCorpus.BUFFER_KEYWORDS));
+        return new ArrayList<>(patterns);
+    }
+
+    private static List<String> texts() {
+        List<String> texts = new ArrayList<>();
+        texts.add("");
+        Random random = new Random(0);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int j = random.nextInt(64); j > 0; j--) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            texts.add(builder.toString());
+        }
+        for (BenchmarkCorpus.Component component : BenchmarkCorpus.generate(200, 1)) {
+            texts.add(component.path);
+            texts.add(new String(component.buffer, StandardCharsets.ISO_8859_1));
+        }
+        return texts;
+    }
+
+    /**
+     * @return All matches of all patterns, as "start:length" sorted by start and length.
+     */
+    private static List<String> simpleSearch(String text, List<String> patterns) {
+        List<String> matches = new ArrayList<>();
+        for (String pattern : patterns) {
+            for (int index = text.indexOf(pattern); index >= 0; index = text.indexOf(pattern, index + 1)) {
+                matches.add(index + ":" + pattern.length());
+            }
+        }
+        return sorted(matches);
+    }
+
+    private static List<String> sorted(List<String> matches) {
+        matches.sort((o1, o2) -> {
+            String[] first = o1.split(":");
+            String[] second = o2.split(":");
+            final int compare = Integer.compare(Integer.parseInt(first[0]), Integer.parseInt(second[0]));
+            return compare != 0 ? compare : Integer.compare(Integer.parseInt(first[1]), Integer.parseInt(second[1]));
+        });
+        return matches;
+    }
+
+    private static <T> void addAllMatchesCallbacks(TrieSearch<T> search, List<T> patterns, String variant) {
+        for (T pattern : patterns) {
+            search.addPattern(pattern, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                //noinspection unchecked
+                ((List<String>) callbackParameter).add(matchedStartIndex + ":" + matchedLength);
+                return false; // Continue searching, to find all matches.
+            });
+        }
+        if (variant.endsWith("frozen")) {
+            search.freeze();
+        }
+    }
+
+    private static <T> List<String> search(TrieSearch<T> search, T text) {
+        List<String> matches = new ArrayList<>();
+        search.matches(text, matches);
+        return sorted(matches);
+    }
+
+    @Test
+    public void stringSearchVariantsFindAllMatches() {
+        List<String> patterns = patterns();
+        List<String> texts = texts();
+        for (String variant : VARIANTS) {
+            StringTrieSearch search = new StringTrieSearch(variant.startsWith("automaton"));
+            addAllMatchesCallbacks(search, patterns, variant);
+            for (String text : texts) {
+                assertEquals(simpleSearch(text, patterns), search(search, text), variant + ": " + text);
+            }
+        }
+    }
+
+    @Test
+    public void byteSearchVariantsFindAllMatches() {
+        List<String> patterns = patterns();
+        List<byte[]> bytePatterns = Arrays.asList(ByteTrieSearch.convertStringsToBytes(patterns.toArray(new String[0])));
+        List<String> texts = texts();
+        for (String variant : VARIANTS) {
+            ByteTrieSearch search = new ByteTrieSearch(variant.startsWith("automaton"));
+            addAllMatchesCallbacks(search, bytePatterns, variant);
+            for (String text : texts) {
+                assertEquals(simpleSearch(text, patterns),
+                        search(search, text.getBytes(StandardCharsets.ISO_8859_1)), variant + ": " + text);
+            }
+        }
+    }
+
+    @Test
+    public void ignoreCaseByteSearchVariantsFindAllMatches() {
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : patterns()) {
+            patterns.add(pattern.toLowerCase(Locale.ROOT));
+        }
+        List<byte[]> bytePatterns = Arrays.asList(ByteTrieSearch.convertStringsToBytes(
+                patterns.stream().map(pattern -> pattern.toUpperCase(Locale.ROOT)).toArray(String[]::new)));
+        List<String> texts = texts();
+        for (String variant : VARIANTS) {
+            ByteTrieSearch search = new ByteTrieSearch(variant.startsWith("automaton"), true);
+            addAllMatchesCallbacks(search, bytePatterns, variant);
+            for (String text : texts) {
+                // Patterns are ASCII, so the expected matches are the same as searching the lower case text.
+                assertEquals(simpleSearch(text.toLowerCase(Locale.ROOT), patterns),
+                        search(search, text.getBytes(StandardCharsets.ISO_8859_1)), variant + ": " + text);
+            }
+        }
+    }
+
+    @Test
+    public void filterGroupMatchesFilterGroupList() {
+        ByteArrayFilterGroup group = new ByteArrayFilterGroup(null, BenchmarkCorpus.BUFFER_KEYWORDS);
+        ByteArrayFilterGroupList groupList = new ByteArrayFilterGroupList();
+        for (String keyword : BenchmarkCorpus.BUFFER_KEYWORDS) {
+            groupList.addAll(new ByteArrayFilterGroup(null, keyword));
+        }
+
+        List<BenchmarkCorpus.Component> components = new ArrayList<>(BenchmarkCorpus.generate(500, 2));
+        Collections.shuffle(components, new Random(3));
+        for (BenchmarkCorpus.Component component : components) {
+            byte[] buffer = component.buffer;
+            String text = new String(buffer, StandardCharsets.ISO_8859_1);
+            boolean expected = false;
+            for (String keyword : BenchmarkCorpus.BUFFER_KEYWORDS) {
+                expected |= text.contains(keyword);
+            }
+            assertEquals(expected, group.check(buffer).isFiltered(), text);
+            assertEquals(expected, groupList.check(buffer).isFiltered(), text);
+        }
+    }
+}
@@ -28,4 +28,12 @@ public final class AdsFilter extends Filter {
         addPathCallbacks(statementBanner);
 
     }
+
+    /**
+     * Ads are hidden using only the identifier, path and settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
 }
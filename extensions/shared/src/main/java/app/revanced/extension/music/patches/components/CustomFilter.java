@@ -143,7 +143,13 @@ public final class CustomFilter extends Filter {
         if (!groups.isEmpty()) {
             CustomFilterGroup[] groupsArray = groups.toArray(new CustomFilterGroup[0]);
             Logger.printDebug(() -> "Using Custom filters: " + Arrays.toString(groupsArray));
-            addPathCallbacks(groupsArray);
+            for (CustomFilterGroup group : groupsArray) {
+                if (group.startsWith) {
+                    addPathStartsWithCallbacks(group);
+                } else {
+                    addPathCallbacks(group);
+                }
+            }
         }
     }
 
@@ -151,10 +157,8 @@ public final class CustomFilter extends Filter {
     public boolean isFiltered(String path, @Nullable String identifier, String allValue, byte[] protobufBufferArray,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
         // All callbacks are custom filter groups.
+        // Starts with groups are only matched at the start of the path.
         CustomFilterGroup custom = (CustomFilterGroup) matchedGroup;
-        if (custom.startsWith && contentIndex != 0) {
-            return false;
-        }
         if (custom.bufferSearch != null && !custom.bufferSearch.matches(protobufBufferArray)) {
             return false;
         }
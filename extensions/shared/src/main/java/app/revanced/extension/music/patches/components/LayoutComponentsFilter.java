@@ -36,4 +36,12 @@ public final class LayoutComponentsFilter extends Filter {
                 sampleShelf
         );
     }
+
+    /**
+     * Shelves are hidden using only the identifier and settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
 }
@@ -22,4 +22,12 @@ public final class PlayerComponentsFilter extends Filter {
                 )
         );
     }
+
+    /**
+     * Results depend only on the identifier, path and settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
 }
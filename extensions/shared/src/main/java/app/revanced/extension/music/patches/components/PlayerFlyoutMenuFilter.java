@@ -20,4 +20,12 @@ public final class PlayerFlyoutMenuFilter extends Filter {
                 )
         );
     }
+
+    /**
+     * Results depend only on the identifier and settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
 }
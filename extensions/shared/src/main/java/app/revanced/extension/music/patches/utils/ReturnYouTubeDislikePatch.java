@@ -10,6 +10,7 @@ import androidx.annotation.Nullable;
 
 import app.revanced.extension.music.returnyoutubedislike.ReturnYouTubeDislike;
 import app.revanced.extension.music.settings.Settings;
+import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteDiskCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.ReturnYouTubeDislikeApi;
 import app.revanced.extension.shared.utils.Logger;
 
@@ -68,6 +69,7 @@ public class ReturnYouTubeDislikePatch {
 
     public static void onRYDStatusChange(boolean rydEnabled) {
         ReturnYouTubeDislikeApi.resetRateLimits();
+        RYDVoteDiskCache.clear();
         // Must remove all values to protect against using stale data
         // if the user enables RYD while a video is on screen.
         clearData();
@@ -27,10 +27,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.text.NumberFormat;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -40,7 +37,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import app.revanced.extension.music.settings.Settings;
+import app.revanced.extension.shared.returnyoutubedislike.ReturnYouTubeDislikeFetchCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteData;
+import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteDiskCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.ReturnYouTubeDislikeApi;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -78,8 +77,8 @@ public class ReturnYouTubeDislike {
     /**
      * Cached lookup of all video ids.
      */
-    @GuardedBy("itself")
-    private static final Map<String, ReturnYouTubeDislike> fetchCache = new HashMap<>();
+    private static final ReturnYouTubeDislikeFetchCache<ReturnYouTubeDislike> fetchCache =
+            new ReturnYouTubeDislikeFetchCache<>(ReturnYouTubeDislike::new, ReturnYouTubeDislike::isExpired);
 
     /**
      * Used to send votes, one by one, in the same order the user created them.
@@ -323,51 +322,20 @@ public class ReturnYouTubeDislike {
     @NonNull
     public static ReturnYouTubeDislike getFetchForVideoId(@Nullable String videoId) {
         Objects.requireNonNull(videoId);
-        synchronized (fetchCache) {
-            // Remove any expired entries.
-            final long now = System.currentTimeMillis();
-            if (isSDKAbove(24)) {
-                fetchCache.values().removeIf(value -> {
-                    final boolean expired = value.isExpired(now);
-                    if (expired)
-                        Logger.printDebug(() -> "Removing expired fetch: " + value.videoId);
-                    return expired;
-                });
-            } else {
-                final Iterator<Map.Entry<String, ReturnYouTubeDislike>> itr = fetchCache.entrySet().iterator();
-                while (itr.hasNext()) {
-                    final Map.Entry<String, ReturnYouTubeDislike> entry = itr.next();
-                    if (entry.getValue().isExpired(now)) {
-                        Logger.printDebug(() -> "Removing expired fetch: " + entry.getValue().videoId);
-                        itr.remove();
-                    }
-                }
-            }
-
-            ReturnYouTubeDislike fetch = fetchCache.get(videoId);
-            if (fetch == null) {
-                fetch = new ReturnYouTubeDislike(videoId);
-                fetchCache.put(videoId, fetch);
-            }
-            return fetch;
-        }
+        return fetchCache.get(videoId);
     }
 
     /**
      * Should be called if the user changes dislikes appearance settings.
      */
     public static void clearAllUICaches() {
-        synchronized (fetchCache) {
-            for (ReturnYouTubeDislike fetch : fetchCache.values()) {
-                fetch.clearUICache();
-            }
-        }
+        fetchCache.forEach(ReturnYouTubeDislike::clearUICache);
     }
 
     private ReturnYouTubeDislike(@NonNull String videoId) {
         this.videoId = Objects.requireNonNull(videoId);
         this.timeFetched = System.currentTimeMillis();
-        this.future = Utils.submitOnBackgroundThread(() -> ReturnYouTubeDislikeApi.fetchVotes(videoId));
+        this.future = Utils.submitOnBackgroundThread(() -> RYDVoteDiskCache.fetchVotes(videoId));
     }
 
     private boolean isExpired(long now) {
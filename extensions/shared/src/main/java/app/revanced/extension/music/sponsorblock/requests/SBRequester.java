@@ -2,10 +2,11 @@ package app.revanced.extension.music.sponsorblock.requests;
 
 import static app.revanced.extension.shared.utils.StringRef.str;
 
+import android.util.JsonReader;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -63,23 +64,16 @@ public class SBRequester {
             final int responseCode = connection.getResponseCode();
 
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
-                JSONArray responseArray = Requester.parseJSONArray(connection);
                 final long minSegmentDuration = 0;
-                for (int i = 0, length = responseArray.length(); i < length; i++) {
-                    JSONObject obj = (JSONObject) responseArray.get(i);
-                    JSONArray segment = obj.getJSONArray("segment");
-                    final long start = (long) (segment.getDouble(0) * 1000);
-                    final long end = (long) (segment.getDouble(1) * 1000);
-
-                    String uuid = obj.getString("UUID");
-                    final boolean locked = obj.getInt("locked") == 1;
-                    String categoryKey = obj.getString("category");
-                    SegmentCategory category = SegmentCategory.byCategoryKey(categoryKey);
-                    if (category == null) {
-                        Logger.printException(() -> "Received unknown category: " + categoryKey); // should never happen
-                    } else if ((end - start) >= minSegmentDuration) {
-                        segments.add(new SponsorSegment(category, uuid, start, end, locked));
+                try (JsonReader reader = Requester.parseJsonReader(connection)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        SponsorSegment segment = parseSegment(reader, minSegmentDuration);
+                        if (segment != null) {
+                            segments.add(segment);
+                        }
                     }
+                    reader.endArray();
                 }
                 Logger.printDebug(() -> {
                     StringBuilder builder = new StringBuilder("Downloaded segments:");
@@ -108,6 +102,54 @@ public class SBRequester {
         return segments.toArray(new SponsorSegment[0]);
     }
 
+    /**
+     * Reads a segment object of the get segments response.
+     *
+     * @return The segment, or NULL if the segment is not used.
+     */
+    @Nullable
+    private static SponsorSegment parseSegment(@NonNull JsonReader reader, long minSegmentDuration) throws IOException {
+        long start = -1;
+        long end = -1;
+        String uuid = null;
+        boolean locked = false;
+        String categoryKey = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "segment" -> {
+                    reader.beginArray();
+                    start = (long) (reader.nextDouble() * 1000);
+                    end = (long) (reader.nextDouble() * 1000);
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                }
+                case "UUID" -> uuid = reader.nextString();
+                case "locked" -> locked = reader.nextInt() == 1;
+                case "category" -> categoryKey = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (start < 0 || uuid == null || categoryKey == null) {
+            throw new IllegalStateException("Missing segment data for: " + uuid); // should never happen
+        }
+        SegmentCategory category = SegmentCategory.byCategoryKey(categoryKey);
+        if (category == null) {
+            final String key = categoryKey;
+            Logger.printException(() -> "Received unknown category: " + key); // should never happen
+            return null;
+        }
+        if ((end - start) >= minSegmentDuration) {
+            return new SponsorSegment(category, uuid, start, end, locked);
+        }
+        return null;
+    }
+
     public static void runVipCheckInBackgroundIfNeeded() {
         if (!SponsorBlockSettings.userHasSBPrivateId()) {
             return; // User cannot be a VIP. User has never voted, created any segments, or has imported a SB user id.
@@ -1,58 +1,125 @@
 package app.revanced.extension.shared.patches.components;
 
+import androidx.annotation.Nullable;
+
 import app.revanced.extension.shared.settings.BooleanSetting;
 import app.revanced.extension.shared.utils.ByteTrieSearch;
 import app.revanced.extension.shared.utils.Logger;
 
 /**
- * If you have more than 1 filter patterns, then all instances of
+ * All patterns of a group are searched for with a single pass over the data.
+ * If you have many groups, then all instances of
  * this class should filtered using {@link ByteArrayFilterGroupList#check(byte[])},
  * which uses a prefix tree to give better performance.
+ * <p>
+ * Groups created by the litho filters do not search the buffer of the component being filtered,
+ * and instead use the matches found by {@link LithoFilterBufferScan}.
  */
 @SuppressWarnings("unused")
 public class ByteArrayFilterGroup extends FilterGroup<byte[]> {
 
-    private volatile int[][] failurePatterns;
+    /**
+     * Prefilter tables used to search for all patterns of this group with a single pass over the data.
+     * <p>
+     * Each data position is first checked against a bitmask of the first two bytes (bigram)
+     * of all patterns, and only positions that pass are compared with the patterns that start with that byte.
+     * Most positions of a buffer are rejected with a single table lookup,
+     * so the search cost does not grow with the number of patterns.
+     */
+    private static final class MultiPatternSearch {
+        private static final int BIGRAM_BITS = 12;
+        private static final int BIGRAM_MASK = (1 << BIGRAM_BITS) - 1;
 
-    // Modified implementation from https://stackoverflow.com/a/1507813
-    private static int indexOf(final byte[] data, final byte[] pattern, final int[] failure) {
-        // Finds the first occurrence of the pattern in the byte array using
-        // KMP matching algorithm.
-        int patternLength = pattern.length;
-        for (int i = 0, j = 0, dataLength = data.length; i < dataLength; i++) {
-            while (j > 0 && pattern[j] != data[i]) {
-                j = failure[j - 1];
-            }
-            if (pattern[j] == data[i]) {
-                j++;
-            }
-            if (j == patternLength) {
-                return i - patternLength + 1;
+        /**
+         * Bitmask of the hashed first two bytes of all patterns.
+         * Hash collisions only cause extra comparisons.
+         */
+        final long[] bigrams = new long[(1 << BIGRAM_BITS) / 64];
+        /**
+         * Patterns indexed by the first byte, in the same order as the group filters.
+         */
+        final byte[][][] patternsByFirstByte = new byte[256][][];
+        /**
+         * If any pattern is a single byte, in which case the bigram prefilter cannot be used.
+         */
+        final boolean hasSingleBytePattern;
+
+        MultiPatternSearch(byte[][] patterns) {
+            boolean singleByte = false;
+            for (byte[] pattern : patterns) {
+                final int firstByte = pattern[0] & 0xFF;
+                byte[][] bucket = patternsByFirstByte[firstByte];
+                if (bucket == null) {
+                    bucket = new byte[][]{pattern};
+                } else {
+                    byte[][] expanded = new byte[bucket.length + 1][];
+                    System.arraycopy(bucket, 0, expanded, 0, bucket.length);
+                    expanded[bucket.length] = pattern;
+                    bucket = expanded;
+                }
+                patternsByFirstByte[firstByte] = bucket;
+
+                if (pattern.length == 1) {
+                    singleByte = true;
+                } else {
+                    final int hash = bigramHash(pattern[0], pattern[1]);
+                    bigrams[hash >>> 6] |= 1L << hash;
+                }
             }
+            hasSingleBytePattern = singleByte;
         }
-        return -1;
-    }
 
-    private static int[] createFailurePattern(byte[] pattern) {
-        // Computes the failure function using a boot-strapping process,
-        // where the pattern is matched against itself.
-        final int patternLength = pattern.length;
-        final int[] failure = new int[patternLength];
+        static int bigramHash(byte first, byte second) {
+            return (((first & 0xFF) << 4) ^ (second & 0xFF)) & BIGRAM_MASK;
+        }
 
-        for (int i = 1, j = 0; i < patternLength; i++) {
-            while (j > 0 && pattern[j] != pattern[i]) {
-                j = failure[j - 1];
+        boolean isBigramCandidate(byte first, byte second) {
+            final int hash = bigramHash(first, second);
+            return (bigrams[hash >>> 6] & (1L << hash)) != 0;
+        }
+
+        private static boolean regionMatches(byte[] data, int index, byte[] pattern) {
+            // First byte is already known to match.
+            for (int i = 1, length = pattern.length; i < length; i++) {
+                if (data[index + i] != pattern[i]) {
+                    return false;
+                }
             }
-            if (pattern[j] == pattern[i]) {
-                j++;
+            return true;
+        }
+
+        /**
+         * @return The first pattern found at the index, or NULL if none match.
+         */
+        @Nullable
+        byte[] patternAt(byte[] data, int index, int endIndex) {
+            byte[][] bucket = patternsByFirstByte[data[index] & 0xFF];
+            if (bucket == null) {
+                return null;
+            }
+            if (!hasSingleBytePattern
+                    && (index + 1 >= endIndex || !isBigramCandidate(data[index], data[index + 1]))) {
+                return null;
+            }
+            for (byte[] pattern : bucket) {
+                if (index + pattern.length <= endIndex && regionMatches(data, index, pattern)) {
+                    return pattern;
+                }
             }
-            failure[i] = j;
+            return null;
         }
-        return failure;
     }
 
+    private volatile MultiPatternSearch search;
+
+    /**
+     * Index of this group in {@link LithoFilterBufferScan}, or -1 if this group is not registered.
+     */
+    final int bufferScanIndex;
+
     public ByteArrayFilterGroup(BooleanSetting setting, byte[]... filters) {
         super(setting, filters);
+        bufferScanIndex = LithoFilterBufferScan.register(this);
     }
 
     /**
@@ -60,35 +127,51 @@ public class ByteArrayFilterGroup extends FilterGroup<byte[]> {
      */
     public ByteArrayFilterGroup(BooleanSetting setting, String... filters) {
         super(setting, ByteTrieSearch.convertStringsToBytes(filters));
+        bufferScanIndex = LithoFilterBufferScan.register(this);
     }
 
-    private synchronized void buildFailurePatterns() {
-        if (failurePatterns != null)
+    private synchronized void buildSearch() {
+        if (search != null)
             return; // Thread race and another thread already initialized the search.
-        Logger.printDebug(() -> "Building failure array for: " + this);
-        int[][] failurePatterns = new int[filters.length][];
-        int i = 0;
-        for (byte[] pattern : filters) {
-            failurePatterns[i++] = createFailurePattern(pattern);
+        Logger.printDebug(() -> "Building search for: " + this);
+        search = new MultiPatternSearch(filters); // Must set after initialization finishes.
+    }
+
+    private MultiPatternSearch getSearch() {
+        MultiPatternSearch patternSearch = search;
+        if (patternSearch == null) {
+            buildSearch(); // Lazy load.
+            patternSearch = search;
         }
-        this.failurePatterns = failurePatterns; // Must set after initialization finishes.
+        return patternSearch;
     }
 
+    /**
+     * Searches for all filter patterns with a single pass over the data.
+     * If more than one pattern matches, the result is the match closest to the start of the data.
+     */
     @Override
     public FilterGroupResult check(final byte[] bytes) {
         int matchedLength = 0;
         int matchedIndex = -1;
         if (isEnabled()) {
-            int[][] failures = failurePatterns;
-            if (failures == null) {
-                buildFailurePatterns(); // Lazy load.
-                failures = failurePatterns;
+            LithoFilterBufferScan.Scan scan = bufferScanIndex < 0
+                    ? null
+                    : LithoFilterBufferScan.getScan(bytes);
+            if (scan != null) {
+                if (scan.isMatched(bufferScanIndex)) {
+                    matchedIndex = scan.getFirstStartIndex(bufferScanIndex);
+                    matchedLength = scan.getFirstStartLength(bufferScanIndex);
+                }
+                return new FilterGroupResult(setting, matchedIndex, matchedLength);
             }
-            for (int i = 0, length = filters.length; i < length; i++) {
-                byte[] filter = filters[i];
-                matchedIndex = indexOf(bytes, filter, failures[i]);
-                if (matchedIndex >= 0) {
-                    matchedLength = filter.length;
+
+            MultiPatternSearch patternSearch = getSearch();
+            for (int i = 0, length = bytes.length; i < length; i++) {
+                byte[] pattern = patternSearch.patternAt(bytes, i, length);
+                if (pattern != null) {
+                    matchedIndex = i;
+                    matchedLength = pattern.length;
                     break;
                 }
             }
@@ -3,12 +3,56 @@ package app.revanced.extension.shared.patches.components;
 import app.revanced.extension.shared.utils.ByteTrieSearch;
 
 /**
- * If searching for a single byte pattern, then it is slightly better to use
- * {@link ByteArrayFilterGroup#check(byte[])} as it uses KMP which is faster
- * than a prefix tree to search for only 1 pattern.
+ * If searching for a single group, then it is slightly better to use
+ * {@link ByteArrayFilterGroup#check(byte[])} as its byte prefilter is faster
+ * than a prefix tree to search for only a few patterns.
  */
 public final class ByteArrayFilterGroupList extends FilterGroupList<byte[], ByteArrayFilterGroup> {
     protected ByteTrieSearch createSearchGraph() {
-        return new ByteTrieSearch();
+        return new ByteTrieSearch(true);
+    }
+
+    /**
+     * If the buffer of the component being filtered was already searched by {@link LithoFilterBufferScan},
+     * then the recorded matches of each group are used instead of searching the buffer again.
+     * The result is the same as searching with the prefix tree.
+     * <p>
+     * The returned result is reused by the calling thread, the same as {@link FilterGroupList#check(Object)}.
+     */
+    @Override
+    public FilterGroup.FilterGroupResult check(byte[] bytes) {
+        LithoFilterBufferScan.Scan scan = LithoFilterBufferScan.getScan(bytes);
+        if (scan == null) {
+            return super.check(bytes);
+        }
+
+        ByteArrayFilterGroup matchedGroup = null;
+        int matchedEndIndex = Integer.MAX_VALUE;
+        int matchedLength = 0;
+        for (int i = 0, size = filterGroups.size(); i < size; i++) {
+            ByteArrayFilterGroup group = filterGroups.get(i);
+            final int groupIndex = group.bufferScanIndex;
+            if (groupIndex < 0) {
+                return super.check(bytes); // Group was not registered.
+            }
+            if (!scan.isMatched(groupIndex) || !group.isEnabled()) {
+                continue;
+            }
+            // Same order the prefix tree finds matches:
+            // the match that ends first, then the longest match, then the group added first.
+            final int endIndex = scan.getFirstEndIndex(groupIndex);
+            final int length = scan.getFirstEndLength(groupIndex);
+            if (endIndex < matchedEndIndex || (endIndex == matchedEndIndex && length > matchedLength)) {
+                matchedGroup = group;
+                matchedEndIndex = endIndex;
+                matchedLength = length;
+            }
+        }
+
+        FilterGroup.FilterGroupResult result = getThreadResult();
+        if (matchedGroup != null) {
+            result.setValues(matchedGroup.setting, matchedEndIndex - matchedLength, matchedLength);
+        }
+        return result;
     }
 }
@@ -14,6 +14,7 @@ import app.revanced.extension.shared.utils.Logger;
  * <p>
  * Callbacks to filter content are added using {@link #addIdentifierCallbacks(StringFilterGroup...)}
  * and {@link #addPathCallbacks(StringFilterGroup...)}.
+ * Callbacks that must match the start of the path are added using {@link #addPathStartsWithCallbacks(StringFilterGroup...)}.
  * <p>
  * To filter {@link FilterContentType#PROTOBUFFER}, first add a callback to
  * either an identifier or a path.
@@ -43,6 +44,11 @@ public abstract class Filter {
      * and instead use {@link #addPathCallbacks(StringFilterGroup...)}.
      */
     protected final List<StringFilterGroup> pathCallbacks = new ArrayList<>();
+    /**
+     * Path callbacks that only match the start of the path. Do not add to this instance,
+     * and instead use {@link #addPathStartsWithCallbacks(StringFilterGroup...)}.
+     */
+    protected final List<StringFilterGroup> pathStartsWithCallbacks = new ArrayList<>();
     /**
      * Path callbacks. Do not add to this instance,
      * and instead use {@link #addAllValueCallbacks(StringFilterGroup...)}.
@@ -65,6 +71,15 @@ public abstract class Filter {
         pathCallbacks.addAll(Arrays.asList(groups));
     }
 
+    /**
+     * Adds callbacks to {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
+     * if any of the groups are found at the start of the path.
+     * The matched content index is always zero.
+     */
+    protected final void addPathStartsWithCallbacks(StringFilterGroup... groups) {
+        pathStartsWithCallbacks.addAll(Arrays.asList(groups));
+    }
+
     /**
      * Adds callbacks to {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
      * if any of the groups are found.
@@ -73,6 +88,21 @@ public abstract class Filter {
         allValueCallbacks.addAll(Arrays.asList(groups));
     }
 
+    /**
+     * If the result of {@link #isFiltered(String, String, String, byte[], StringFilterGroup, FilterContentType, int)}
+     * depends only on the identifier, the path, and boolean settings.
+     * Results of cacheable filters can be reused for components with the same identifier and path,
+     * and the filter is then not called again for those components.
+     * <p>
+     * Filters that search the buffer, check the app state (player type, navigation tab, etc.),
+     * or have side effects must not be cacheable.
+     * <p>
+     * Filters are not cacheable unless they override this method.
+     */
+    protected boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Called after an enabled filter has been matched.
      * Default implementation is to always filter the matched component and log the action.
@@ -84,6 +114,8 @@ public abstract class Filter {
      * <p>
      * Method is called off the main thread.
      *
+     * @param protobufBufferArray Buffer of the component. A copy of a direct buffer is reused by the calling thread
+     *                            and can be longer than the buffer, with zero bytes after the buffer content.
      * @param matchedGroup The actual filter that matched.
      * @param contentType  The type of content matched.
      * @param contentIndex Matched index of the identifier or path.
@@ -6,6 +6,14 @@ import app.revanced.extension.shared.settings.BooleanSetting;
 
 @SuppressWarnings("unused")
 public abstract class FilterGroup<T> {
+    /**
+     * Result of a group or group list check.
+     * <p>
+     * {@link FilterGroup#check(Object)} returns a new result for each check.
+     * {@link FilterGroupList#check(Object)} returns a result reused by the calling thread,
+     * which is overwritten by the next check of the same list.
+     * Use the values of a list result immediately, and copy the values if they are needed later.
+     */
     public final static class FilterGroupResult {
         private BooleanSetting setting;
         private int matchedIndex;
@@ -41,6 +49,7 @@ public abstract class FilterGroup<T> {
 
         /**
          * Matched index of first pattern that matched, or -1 if nothing matched.
+         * For a {@link FilterGroupList}, the first match is the match that ends first.
          */
         public int getMatchedIndex() {
             return matchedIndex;
@@ -91,5 +100,8 @@ public abstract class FilterGroup<T> {
         return getClass().getSimpleName() + ": " + (setting == null ? "(null setting)" : setting);
     }
 
+    /**
+     * @return A new result, which can be kept.
+     */
     public abstract FilterGroupResult check(final T stack);
 }
@@ -14,11 +14,20 @@ import java.util.function.Consumer;
 
 import app.revanced.extension.shared.utils.TrieSearch;
 
+/**
+ * Searches all patterns of all groups with a single Aho-Corasick automaton.
+ * <p>
+ * If patterns of different enabled groups match, the result is the match that ends first in the text,
+ * and of matches that end at the same index, the longest match.
+ * Searching each index of the text with the prefix tree instead returned the match that starts first.
+ * {@link FilterGroup.FilterGroupResult#isFiltered()} is the same with both orders,
+ * only the matched group setting and index of the result can be different.
+ */
 @SuppressLint("ObsoleteSdkInt")
 @SuppressWarnings("unused")
 public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements Iterable<T> {
 
-    private final List<T> filterGroups = new ArrayList<>();
+    final List<T> filterGroups = new ArrayList<>();
     private final TrieSearch<V> search = createSearchGraph();
 
     @SafeVarargs
@@ -61,11 +70,34 @@ public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements It
         return filterGroups.spliterator();
     }
 
+    /**
+     * Results reused by each calling thread, to avoid an allocation for every check.
+     */
+    private final ThreadLocal<FilterGroup.FilterGroupResult> resultThreadLocal = new ThreadLocal<>();
+
+    /**
+     * @return A result object owned by the calling thread, reset to no match.
+     */
+    FilterGroup.FilterGroupResult getThreadResult() {
+        FilterGroup.FilterGroupResult result = resultThreadLocal.get();
+        if (result == null) {
+            result = new FilterGroup.FilterGroupResult();
+            resultThreadLocal.set(result);
+        } else {
+            result.setValues(null, -1, 0);
+        }
+        return result;
+    }
+
+    /**
+     * Unlike {@link FilterGroup#check(Object)}, the returned result is not a new object.
+     * It is reused by later checks of this list by the same thread,
+     * so it must be used before this list is checked again and must not be kept.
+     */
     public FilterGroup.FilterGroupResult check(V stack) {
-        FilterGroup.FilterGroupResult result = new FilterGroup.FilterGroupResult();
+        FilterGroup.FilterGroupResult result = getThreadResult();
         search.matches(stack, result);
         return result;
-
     }
 
     protected abstract TrieSearch<V> createSearchGraph();
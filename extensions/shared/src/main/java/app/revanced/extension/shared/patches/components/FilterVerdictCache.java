@@ -0,0 +1,130 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import app.revanced.extension.shared.settings.BooleanSetting;
+
+/**
+ * Bounded and lock free cache of Litho filter results, keyed by a hash of the component identifier and path.
+ * <p>
+ * The cache is a direct mapped table where each entry packs the key hash and the result into a single long.
+ * A filtered result can include a small tag, such as which filter group filtered the component.
+ * Concurrent threads never see a partially written entry, and using the cache does not allocate any objects.
+ * An entry is replaced by any newer entry that maps to the same table index.
+ * <p>
+ * The key hash includes {@link BooleanSetting#getValueChangeCount()},
+ * so all entries are invalidated when any boolean setting changes.
+ * <p>
+ * Filters can also use their own instance to cache results that depend only on the buffer content.
+ */
+public final class FilterVerdictCache {
+    public static final int NOT_CACHED = -1;
+    public static final int NOT_FILTERED = 0;
+    /**
+     * Result of a filtered component. If the result was saved with a tag, the tag is added to this value.
+     */
+    public static final int FILTERED = 1;
+
+    /**
+     * Largest tag that can be saved with a filtered result.
+     */
+    public static final int MAX_FILTERED_TAG = 0xFFFE;
+
+    /**
+     * Number of low bits of an entry that hold the result.
+     */
+    private static final int RESULT_BITS = 16;
+    private static final long RESULT_MASK = (1L << RESULT_BITS) - 1;
+
+    /**
+     * Number of entries. Must be a power of 2.
+     */
+    private static final int TABLE_SIZE = 4096;
+
+    /**
+     * FNV-1a 64-bit hash constants.
+     */
+    private static final long HASH_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    /**
+     * Lowest 16 bits are the result, where zero is not filtered and any other value is filtered (tag plus one).
+     * All other bits are the key hash. Zero is an empty entry.
+     */
+    private final AtomicLongArray table = new AtomicLongArray(TABLE_SIZE);
+
+    /**
+     * @return Key hash of the component.
+     */
+    static long keyHash(@Nullable String identifier, CharSequence path) {
+        long hash = HASH_OFFSET_BASIS;
+        hash = (hash ^ BooleanSetting.getValueChangeCount()) * HASH_PRIME;
+        if (identifier != null) {
+            for (int i = 0, length = identifier.length(); i < length; i++) {
+                hash = (hash ^ identifier.charAt(i)) * HASH_PRIME;
+            }
+        }
+        hash = (hash ^ '|') * HASH_PRIME; // Separator between the identifier and path.
+        for (int i = 0, length = path.length(); i < length; i++) {
+            hash = (hash ^ path.charAt(i)) * HASH_PRIME;
+        }
+        return toKeyHash(hash);
+    }
+
+    /**
+     * @param startIndex Start index of the buffer content, inclusive.
+     * @param endIndex   End index of the buffer content, exclusive.
+     * @return Key hash of the buffer content.
+     */
+    public static long keyHash(byte[] buffer, int startIndex, int endIndex) {
+        long hash = HASH_OFFSET_BASIS;
+        hash = (hash ^ BooleanSetting.getValueChangeCount()) * HASH_PRIME;
+        for (int i = startIndex; i < endIndex; i++) {
+            hash = (hash ^ buffer[i]) * HASH_PRIME;
+        }
+        hash = (hash ^ (endIndex - startIndex)) * HASH_PRIME;
+        return toKeyHash(hash);
+    }
+
+    private static long toKeyHash(long hash) {
+        hash &= ~RESULT_MASK; // Low bits hold the result.
+        if (hash == 0) {
+            hash = 1L << RESULT_BITS; // Zero is used for empty entries.
+        }
+        return hash;
+    }
+
+    private static int tableIndex(long keyHash) {
+        return (int) ((keyHash >>> RESULT_BITS) ^ (keyHash >>> 40)) & (TABLE_SIZE - 1);
+    }
+
+    /**
+     * @return {@link #NOT_CACHED}, {@link #NOT_FILTERED},
+     *         or {@link #FILTERED} plus the tag the result was saved with.
+     */
+    public int get(long keyHash) {
+        final long entry = table.get(tableIndex(keyHash));
+        if ((entry & ~RESULT_MASK) != keyHash) {
+            return NOT_CACHED;
+        }
+        final int result = (int) (entry & RESULT_MASK);
+        return result == 0 ? NOT_FILTERED : FILTERED + result - 1;
+    }
+
+    public void put(long keyHash, boolean filtered) {
+        put(keyHash, filtered, 0);
+    }
+
+    /**
+     * @param filteredTag Tag of a filtered result, from zero to {@link #MAX_FILTERED_TAG}.
+     *                    Ignored if the result is not filtered.
+     */
+    public void put(long keyHash, boolean filtered, int filteredTag) {
+        if (filteredTag < 0 || filteredTag > MAX_FILTERED_TAG) {
+            throw new IllegalArgumentException("Invalid tag: " + filteredTag);
+        }
+        table.set(tableIndex(keyHash), filtered ? keyHash | (filteredTag + 1) : keyHash);
+    }
+}
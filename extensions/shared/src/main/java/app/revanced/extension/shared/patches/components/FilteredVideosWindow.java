@@ -0,0 +1,119 @@
+package app.revanced.extension.shared.patches.components;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Verdicts of the most recent videos a filter checked, used to detect if a filter is hiding all videos.
+ * <p>
+ * The verdicts are kept in a ring of the last sample size videos, regardless of how long ago each video was seen,
+ * so slowly scrolling through a feed is detected the same as quickly scrolling.
+ * No locks are used, and recording a verdict does not allocate any objects.
+ */
+public final class FilteredVideosWindow {
+
+    private static final class Samples {
+        /**
+         * One if the video was hidden, zero if not hidden or not yet used.
+         */
+        final AtomicIntegerArray hidden;
+        /**
+         * Number of verdicts recorded, including verdicts already overwritten in the ring.
+         */
+        final AtomicLong recorded = new AtomicLong();
+        /**
+         * Sum of {@link #hidden}.
+         */
+        final AtomicInteger hiddenCount = new AtomicInteger();
+
+        Samples(int sampleSize) {
+            hidden = new AtomicIntegerArray(sampleSize);
+        }
+    }
+
+    private final int sampleSize;
+    private final int thresholdPercentage;
+    private final long backoffMilliseconds;
+
+    /**
+     * Replaced with new samples instead of clearing the counts,
+     * so a thread that still holds the old samples can never add to the new counts.
+     */
+    private final AtomicReference<Samples> samples;
+
+    /**
+     * If filtering is temporarily turned off, the time to resume filtering.
+     * Value is zero if no timeout is in effect.
+     */
+    private final AtomicLong timeToResumeFiltering = new AtomicLong();
+
+    /**
+     * @param sampleSize          Number of most recent videos checked against the threshold.
+     * @param thresholdPercentage Percentage of hidden videos that indicates all or nearly all videos are hidden.
+     * @param backoffMilliseconds How long filtering is turned off after the threshold is passed.
+     */
+    public FilteredVideosWindow(int sampleSize, int thresholdPercentage, long backoffMilliseconds) {
+        this.sampleSize = sampleSize;
+        this.thresholdPercentage = thresholdPercentage;
+        this.backoffMilliseconds = backoffMilliseconds;
+        this.samples = new AtomicReference<>(new Samples(sampleSize));
+    }
+
+    /**
+     * @return If the last sample size videos are over the threshold.
+     */
+    public boolean record(boolean videoWasHidden) {
+        Samples current = samples.get();
+        final long index = current.recorded.getAndIncrement();
+        final int value = videoWasHidden ? 1 : 0;
+        // Swapping the slot gives the exact change of the hidden count, even if threads record at the same time.
+        final int replaced = current.hidden.getAndSet((int) (index % sampleSize), value);
+        final int hiddenCount = current.hiddenCount.addAndGet(value - replaced);
+        if (!videoWasHidden || index + 1 < sampleSize) {
+            return false;
+        }
+        return hiddenCount * 100L > (long) sampleSize * thresholdPercentage;
+    }
+
+    /**
+     * @return If filtering was turned off by this call, and was not already turned off by another thread.
+     */
+    public boolean startBackoff(long now) {
+        if (!timeToResumeFiltering.compareAndSet(0, now + backoffMilliseconds)) {
+            return false;
+        }
+        clearCounts();
+        return true;
+    }
+
+    /**
+     * @return If filtering is temporarily turned off.
+     */
+    public boolean isBackingOff(long now) {
+        final long resumeTime = timeToResumeFiltering.get();
+        if (resumeTime == 0) {
+            return false;
+        }
+        if (now < resumeTime) {
+            return true;
+        }
+        if (timeToResumeFiltering.compareAndSet(resumeTime, 0)) {
+            clearCounts();
+            Logger.printDebug(() -> "Resuming filtering videos");
+        }
+        return false;
+    }
+
+    public void reset() {
+        timeToResumeFiltering.set(0);
+        clearCounts();
+    }
+
+    private void clearCounts() {
+        samples.set(new Samples(sampleSize));
+    }
+}
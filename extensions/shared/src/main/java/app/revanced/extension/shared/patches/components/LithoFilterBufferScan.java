@@ -0,0 +1,235 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+import app.revanced.extension.shared.utils.ByteTrieSearch;
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Searches the buffer of a litho component for the patterns of all {@link ByteArrayFilterGroup}
+ * used by the litho filters, with a single pass over the buffer.
+ * <p>
+ * Filters commonly check the same buffer with many different groups.
+ * Instead of each group searching the buffer again, the buffer is searched once
+ * when the first registered group checks it, and the matches of every group are recorded in a bitset.
+ * All later checks of the same component only look up the recorded matches.
+ * <p>
+ * Groups are registered while {@link LithoFilterPatch} creates the filters,
+ * and only if created by the thread that creates the filters.
+ * Groups created at any other time or by any other thread (such as groups created while filtering,
+ * or groups of video ids created by background fetches) are not registered and search the buffer themselves.
+ * Registered groups are searched for as long as the app runs, so only groups kept by the filters must be registered.
+ */
+final class LithoFilterBufferScan {
+
+    /**
+     * Searches for the patterns of all registered groups.
+     * Callbacks never halt the search, so all matches are recorded.
+     */
+    private static final ByteTrieSearch search = new ByteTrieSearch(true);
+
+    private static boolean registrationOpen;
+
+    /**
+     * Thread creating the filters, or null if registration is not open.
+     */
+    @Nullable
+    private static Thread registrationThread;
+
+    private static int numberOfGroups;
+
+    /**
+     * If registration is finished and at least one group was registered.
+     */
+    private static volatile boolean ready;
+
+    private static final ThreadLocal<Scan> scanThreadLocal = new ThreadLocal<>();
+
+    /**
+     * Matches of the registered groups in the buffer of the component currently filtered by a thread.
+     */
+    static final class Scan {
+        @Nullable
+        private byte[] buffer;
+        private int bufferLength;
+        private boolean scanned;
+
+        /**
+         * Bit for each group index, set if any pattern of the group matched.
+         */
+        private final long[] matchedGroups;
+        /**
+         * Match that starts closest to the start of the buffer,
+         * the same as the result of a single group search.
+         */
+        private final int[] firstStartIndex;
+        private final int[] firstStartLength;
+        private final int[] firstStartPatternIndex;
+        /**
+         * Match that ends closest to the start of the buffer,
+         * the same as the result of a group list search.
+         */
+        private final int[] firstEndIndex;
+        private final int[] firstEndLength;
+
+        private Scan(int numberOfGroups) {
+            matchedGroups = new long[(numberOfGroups + 63) / 64];
+            firstStartIndex = new int[numberOfGroups];
+            firstStartLength = new int[numberOfGroups];
+            firstStartPatternIndex = new int[numberOfGroups];
+            firstEndIndex = new int[numberOfGroups];
+            firstEndLength = new int[numberOfGroups];
+        }
+
+        /**
+         * Sets the buffer of the next component. The buffer is not searched until a group checks it.
+         *
+         * @param bufferLength Length of the buffer content, which can be shorter than the array.
+         */
+        void setBuffer(@Nullable byte[] buffer, int bufferLength) {
+            this.buffer = buffer;
+            this.bufferLength = bufferLength;
+            this.scanned = false;
+        }
+
+        private void scanIfNeeded() {
+            if (scanned) {
+                return;
+            }
+            Arrays.fill(matchedGroups, 0);
+            //noinspection DataFlowIssue
+            search.matches(buffer, 0, bufferLength, this);
+            scanned = true;
+        }
+
+        private void recordMatch(int groupIndex, int patternIndex, int matchedIndex, int matchedLength) {
+            final int matchedEndIndex = matchedIndex + matchedLength;
+            final int word = groupIndex >>> 6;
+            final long bit = 1L << groupIndex;
+            if ((matchedGroups[word] & bit) == 0) {
+                matchedGroups[word] |= bit;
+                firstStartIndex[groupIndex] = matchedIndex;
+                firstStartLength[groupIndex] = matchedLength;
+                firstStartPatternIndex[groupIndex] = patternIndex;
+                firstEndIndex[groupIndex] = matchedEndIndex;
+                firstEndLength[groupIndex] = matchedLength;
+                return;
+            }
+
+            // If more than one pattern starts at the same index, the group uses the first pattern that was declared.
+            final int startIndex = firstStartIndex[groupIndex];
+            if (matchedIndex < startIndex
+                    || (matchedIndex == startIndex && patternIndex < firstStartPatternIndex[groupIndex])) {
+                firstStartIndex[groupIndex] = matchedIndex;
+                firstStartLength[groupIndex] = matchedLength;
+                firstStartPatternIndex[groupIndex] = patternIndex;
+            }
+
+            // If more than one pattern ends at the same index, the longest pattern is found first.
+            final int endIndex = firstEndIndex[groupIndex];
+            if (matchedEndIndex < endIndex
+                    || (matchedEndIndex == endIndex && matchedLength > firstEndLength[groupIndex])) {
+                firstEndIndex[groupIndex] = matchedEndIndex;
+                firstEndLength[groupIndex] = matchedLength;
+            }
+        }
+
+        boolean isMatched(int groupIndex) {
+            return (matchedGroups[groupIndex >>> 6] & (1L << groupIndex)) != 0;
+        }
+
+        int getFirstStartIndex(int groupIndex) {
+            return firstStartIndex[groupIndex];
+        }
+
+        int getFirstStartLength(int groupIndex) {
+            return firstStartLength[groupIndex];
+        }
+
+        int getFirstEndIndex(int groupIndex) {
+            return firstEndIndex[groupIndex];
+        }
+
+        int getFirstEndLength(int groupIndex) {
+            return firstEndLength[groupIndex];
+        }
+    }
+
+    /**
+     * Groups created by the calling thread after this call are registered,
+     * until {@link #finishRegistration()} is called.
+     */
+    static synchronized void beginRegistration() {
+        if (ready || numberOfGroups > 0) {
+            return; // Already registered.
+        }
+        registrationOpen = true;
+        registrationThread = Thread.currentThread();
+    }
+
+    static synchronized void finishRegistration() {
+        if (!registrationOpen) {
+            return;
+        }
+        registrationOpen = false;
+        registrationThread = null;
+        search.freeze();
+        ready = numberOfGroups > 0;
+
+        Logger.printDebug(() -> "Buffer scan using: " + numberOfGroups + " groups, "
+                + search.numberOfPatterns() + " patterns (" + search.getEstimatedMemorySize() + " KB)");
+    }
+
+    /**
+     * @return Index of the group, or -1 if the group is not registered.
+     */
+    static synchronized int register(ByteArrayFilterGroup group) {
+        if (!registrationOpen || Thread.currentThread() != registrationThread) {
+            return -1;
+        }
+        final int groupIndex = numberOfGroups++;
+        byte[][] patterns = group.filters;
+        for (int i = 0, length = patterns.length; i < length; i++) {
+            final int patternIndex = i;
+            search.addPattern(patterns[i], (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                ((Scan) callbackParameter).recordMatch(groupIndex, patternIndex, matchedStartIndex, matchedLength);
+                return false;
+            });
+        }
+        return groupIndex;
+    }
+
+    /**
+     * @return The scan of the calling thread, or null if no groups are registered.
+     */
+    @Nullable
+    static Scan getThreadScan() {
+        if (!ready) {
+            return null;
+        }
+        Scan scan = scanThreadLocal.get();
+        if (scan == null) {
+            scan = new Scan(numberOfGroups);
+            scanThreadLocal.set(scan);
+        }
+        return scan;
+    }
+
+    /**
+     * @return The searched scan of the buffer, or null if the calling thread is not filtering this buffer.
+     */
+    @Nullable
+    static Scan getScan(byte[] buffer) {
+        if (!ready) {
+            return null;
+        }
+        Scan scan = scanThreadLocal.get();
+        if (scan == null || scan.buffer != buffer) {
+            return null;
+        }
+        scan.scanIfNeeded();
+        return scan;
+    }
+}
@@ -0,0 +1,165 @@
+package app.revanced.extension.shared.patches.components;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.revanced.extension.shared.settings.BaseSettings;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Saves every filtered Litho component to a {@link LithoFilterCaptureFile},
+ * so the filter search code can be benchmarked with real components without a device.
+ * <p>
+ * A new capture file is started each time the app starts, and is saved to the app private files folder
+ * (/data/data/[package name]/files), since components include account and session data.
+ * <p>
+ * The capture holds only the filter input. The replay tool of the benchmark module
+ * measures the search speed with the benchmark filters. The filters of the app are not run,
+ * so the replay does not show which components the app hides.
+ */
+final class LithoFilterCapture {
+    private static final String FILE_NAME = "litho_filter_capture.bin";
+    private static final int MAXIMUM_FILE_SIZE = 64 * 1024 * 1024;
+    /**
+     * Components are dropped while this many writes are waiting,
+     * so a slow disk cannot hold an unbounded number of buffer copies in memory.
+     */
+    private static final int MAXIMUM_PENDING_WRITES = 256;
+
+    /**
+     * Writes the records in the order they are captured, off the filtering threads.
+     */
+    private static final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+    private static final AtomicInteger pendingWrites = new AtomicInteger();
+    private static final AtomicInteger nextBufferId = new AtomicInteger();
+
+    /**
+     * The last buffer captured by each thread.
+     */
+    private static final ThreadLocal<CapturedBuffer> capturedBufferThreadLocal = new ThreadLocal<>();
+
+    /**
+     * Accessed only by the write executor.
+     */
+    @Nullable
+    private static LithoFilterCaptureFile.Writer writer;
+    /**
+     * Set by the write executor, and read by the filtering threads to stop capturing.
+     */
+    private static volatile boolean captureEnded;
+
+    private static final class CapturedBuffer {
+        final int id = nextBufferId.getAndIncrement();
+        final byte[] array;
+        final byte[] copy;
+
+        CapturedBuffer(byte[] array, int length) {
+            this.array = array;
+            this.copy = Arrays.copyOf(array, length); // The app may reuse the array after filtering.
+        }
+
+        boolean isCopyOf(byte[] other, int otherLength) {
+            if (array != other || copy.length != otherLength) {
+                return false;
+            }
+            for (int i = 0; i < otherLength; i++) {
+                if (copy[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static boolean isEnabled() {
+        return BaseSettings.ENABLE_LITHO_FILTER_CAPTURE.get();
+    }
+
+    /**
+     * @param bufferLength Length of the buffer content, which can be shorter than the array.
+     */
+    static void capture(StringBuilder pathBuilder, @Nullable String identifier, Object object,
+                        byte[] bufferArray, int bufferLength) {
+        if (captureEnded) {
+            return;
+        }
+        if (pendingWrites.incrementAndGet() > MAXIMUM_PENDING_WRITES) {
+            pendingWrites.decrementAndGet();
+            return;
+        }
+
+        CapturedBuffer buffer = capturedBufferThreadLocal.get();
+        final byte[] newBuffer;
+        if (buffer != null && buffer.isCopyOf(bufferArray, bufferLength)) {
+            newBuffer = null;
+        } else {
+            buffer = new CapturedBuffer(bufferArray, bufferLength);
+            capturedBufferThreadLocal.set(buffer);
+            newBuffer = buffer.copy;
+        }
+
+        final int bufferId = buffer.id;
+        String path = pathBuilder.toString();
+        String allValue = object.toString();
+        writeExecutor.execute(() -> write(bufferId, newBuffer, path, identifier, allValue));
+    }
+
+    private static void write(int bufferId, @Nullable byte[] newBuffer, String path,
+                              @Nullable String identifier, String allValue) {
+        try {
+            if (captureEnded) {
+                return;
+            }
+            if (writer == null) {
+                writer = new LithoFilterCaptureFile.Writer(new FileOutputStream(getCaptureFile()));
+                Logger.printInfo(() -> "Litho filter capture started: " + getCaptureFile());
+            }
+
+            if (newBuffer != null) {
+                writer.writeBuffer(bufferId, newBuffer);
+            }
+            writer.writeComponent(bufferId, path, identifier, allValue);
+
+            if (writer.size() >= MAXIMUM_FILE_SIZE) {
+                Logger.printInfo(() -> "Litho filter capture file is full");
+                endCapture();
+            } else if (pendingWrites.get() == 1) {
+                // Caught up with the filtering threads.
+                // Save everything now, since the app can be closed at any time.
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            Logger.printException(() -> "Litho filter capture failure", ex);
+            endCapture();
+        } finally {
+            pendingWrites.decrementAndGet();
+        }
+    }
+
+    private static void endCapture() {
+        captureEnded = true;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                Logger.printException(() -> "Could not close capture file", ex);
+            }
+            writer = null;
+        }
+    }
+
+    private static File getCaptureFile() {
+        Context context = Utils.getContext();
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+}
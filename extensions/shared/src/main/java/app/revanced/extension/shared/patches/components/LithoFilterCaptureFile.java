@@ -0,0 +1,183 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary file of captured Litho components, used to benchmark the Litho filter search without a device.
+ * <p>
+ * File format:
+ * <pre>
+ * int    MAGIC
+ * record...
+ *
+ * Buffer record:
+ * byte   RECORD_BUFFER
+ * int    buffer id
+ * int    buffer length
+ * byte[] buffer
+ *
+ * Component record:
+ * byte   RECORD_COMPONENT
+ * int    buffer id, of a previous buffer record
+ * string path
+ * string identifier (nullable)
+ * string all value
+ *
+ * string: int UTF-8 length (-1 if null), followed by the UTF-8 bytes.
+ * </pre>
+ * The same buffer is commonly used for many components, so each buffer is written only once.
+ * The app can be closed at any time, so readers must ignore an incomplete last record.
+ */
+public final class LithoFilterCaptureFile {
+    private static final int MAGIC = 0x4C464331; // "LFC1"
+    private static final byte RECORD_BUFFER = 1;
+    private static final byte RECORD_COMPONENT = 2;
+
+    public static final class Writer implements Closeable {
+        private final DataOutputStream output;
+
+        public Writer(OutputStream outputStream) throws IOException {
+            output = new DataOutputStream(new BufferedOutputStream(outputStream));
+            output.writeInt(MAGIC);
+        }
+
+        public void writeBuffer(int bufferId, byte[] buffer) throws IOException {
+            output.writeByte(RECORD_BUFFER);
+            output.writeInt(bufferId);
+            output.writeInt(buffer.length);
+            output.write(buffer);
+        }
+
+        public void writeComponent(int bufferId, String path, @Nullable String identifier, String allValue) throws IOException {
+            output.writeByte(RECORD_COMPONENT);
+            output.writeInt(bufferId);
+            writeString(path);
+            writeString(identifier);
+            writeString(allValue);
+        }
+
+        private void writeString(@Nullable String value) throws IOException {
+            if (value == null) {
+                output.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        /**
+         * @return Number of bytes written so far.
+         *         Values larger than {@link Integer#MAX_VALUE} are returned as {@link Integer#MAX_VALUE}.
+         */
+        public int size() {
+            return output.size();
+        }
+
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+
+    public static final class Component {
+        @NonNull
+        public final String path;
+        @Nullable
+        public final String identifier;
+        @NonNull
+        public final String allValue;
+        @NonNull
+        public final byte[] buffer;
+
+        Component(@NonNull String path, @Nullable String identifier, @NonNull String allValue, @NonNull byte[] buffer) {
+            this.path = path;
+            this.identifier = identifier;
+            this.allValue = allValue;
+            this.buffer = buffer;
+        }
+    }
+
+    public static final class Reader implements Closeable {
+        private final DataInputStream input;
+        private final Map<Integer, byte[]> buffers = new HashMap<>();
+
+        public Reader(InputStream inputStream) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(inputStream));
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a Litho filter capture file");
+            }
+        }
+
+        /**
+         * @return The next component, or NULL if there are no more complete records.
+         */
+        @Nullable
+        public Component next() throws IOException {
+            try {
+                while (true) {
+                    final int recordType = input.read();
+                    if (recordType < 0) {
+                        return null;
+                    }
+                    final int bufferId = input.readInt();
+                    if (recordType == RECORD_BUFFER) {
+                        byte[] buffer = new byte[input.readInt()];
+                        input.readFully(buffer);
+                        buffers.put(bufferId, buffer);
+                    } else if (recordType == RECORD_COMPONENT) {
+                        String path = readString();
+                        String identifier = readString();
+                        String allValue = readString();
+                        byte[] buffer = buffers.get(bufferId);
+                        if (path == null || allValue == null || buffer == null) {
+                            throw new IOException("Invalid component record");
+                        }
+                        return new Component(path, identifier, allValue, buffer);
+                    } else {
+                        throw new IOException("Unknown record type: " + recordType);
+                    }
+                }
+            } catch (EOFException ex) {
+                return null; // Capture ended during a write.
+            }
+        }
+
+        @Nullable
+        private String readString() throws IOException {
+            final int length = input.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    private LithoFilterCaptureFile() {
+    }
+}
@@ -4,59 +4,147 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 import app.revanced.extension.shared.settings.BaseSettings;
 import app.revanced.extension.shared.utils.Logger;
-import app.revanced.extension.shared.utils.StringTrieSearch;
+import app.revanced.extension.shared.utils.CharSequenceTrieSearch;
+import app.revanced.extension.shared.utils.ProtobufReader;
 
 @SuppressWarnings("unused")
 public final class LithoFilterPatch {
     /**
      * Simple wrapper to pass the litho parameters through the prefix search.
+     * <p>
+     * One instance is reused for every call by the same thread.
+     * The path and all value Strings are only created if a filter callback uses them.
      */
     private static final class LithoFilterParameters {
         @Nullable
-        final String identifier;
-        final String path;
-        final String allValue;
-        final byte[] protoBuffer;
+        String identifier;
+        StringBuilder pathBuilder;
+        Object object;
+        byte[] protoBuffer;
+        /**
+         * Length of the buffer content. A copied direct buffer can be shorter than the array.
+         */
+        int protoBufferLength;
+
+        /**
+         * Buffer matches of the calling thread, or null if no buffer groups are used by the filters.
+         */
+        @Nullable
+        final LithoFilterBufferScan.Scan bufferScan;
+
+        /**
+         * If all filter callbacks called so far are cacheable.
+         */
+        boolean resultCacheable;
+
+        /**
+         * Statistics index of the group that filtered the component, or -1 if not filtered.
+         */
+        int filteredGroupIndex;
+
+        @Nullable
+        private String path;
+        @Nullable
+        private String allValue;
+
+        LithoFilterParameters(@Nullable LithoFilterBufferScan.Scan bufferScan) {
+            this.bufferScan = bufferScan;
+        }
 
-        LithoFilterParameters(String lithoPath, @Nullable String lithoIdentifier, String allValues, byte[] bufferArray) {
-            this.path = lithoPath;
+        void setValues(StringBuilder lithoPathBuilder, @Nullable String lithoIdentifier, Object lithoObject,
+                       byte[] bufferArray, int bufferLength) {
+            if (bufferScan != null) {
+                bufferScan.setBuffer(bufferArray, bufferLength);
+            }
+            this.pathBuilder = lithoPathBuilder;
             this.identifier = lithoIdentifier;
-            this.allValue = allValues;
+            this.object = lithoObject;
             this.protoBuffer = bufferArray;
+            this.protoBufferLength = bufferLength;
+            this.path = null;
+            this.allValue = null;
+            this.resultCacheable = true;
+            this.filteredGroupIndex = -1;
+        }
+
+        /**
+         * Release all references, so the thread local does not keep litho objects in memory.
+         */
+        void clear() {
+            setValues(null, null, null, null, 0);
+        }
+
+        String getPath() {
+            String lithoPath = path;
+            if (lithoPath == null) {
+                lithoPath = pathBuilder.toString();
+                path = lithoPath;
+            }
+            return lithoPath;
+        }
+
+        String getAllValue() {
+            String lithoAllValue = allValue;
+            if (lithoAllValue == null) {
+                lithoAllValue = object.toString();
+                allValue = lithoAllValue;
+            }
+            return lithoAllValue;
         }
 
         @NonNull
         @Override
         public String toString() {
             // Estimate the percentage of the buffer that are Strings.
-            StringBuilder builder = new StringBuilder(Math.max(100, protoBuffer.length / 2));
+            StringBuilder builder = new StringBuilder(Math.max(100, protoBufferLength / 2));
             builder.append("\nID: ");
             builder.append(identifier);
             builder.append("\nPath: ");
-            builder.append(path);
+            builder.append(getPath());
             if (BaseSettings.ENABLE_DEBUG_BUFFER_LOGGING.get()) {
                 builder.append("\nBufferStrings: ");
-                findAsciiStrings(builder, protoBuffer);
+                findAsciiStrings(builder, protoBuffer, protoBufferLength);
+                appendProtobufFields(builder, protoBuffer, protoBufferLength);
             }
 
             return builder.toString();
         }
 
+        /**
+         * Logs the text fields of the buffer with the field path of each text.
+         */
+        private static void appendProtobufFields(StringBuilder builder, byte[] buffer, int bufferLength) {
+            int start = 0;
+            int end = bufferLength;
+            // Heap buffers use only part of the backing array.
+            ByteBuffer protobufBuffer = bufferThreadLocal.get();
+            if (protobufBuffer != null && protobufBuffer.hasArray() && protobufBuffer.array() == buffer) {
+                start = protobufBuffer.arrayOffset() + protobufBuffer.position();
+                end = protobufBuffer.arrayOffset() + protobufBuffer.limit();
+            }
+            if (!ProtobufReader.isValidMessage(buffer, start, end)) {
+                return;
+            }
+            builder.append("\nBufferFields: ");
+            ProtobufReader.appendTextFields(builder, buffer, start, end, 16);
+        }
+
         /**
          * Search through a byte array for all ASCII strings.
          */
-        private static void findAsciiStrings(StringBuilder builder, byte[] buffer) {
+        private static void findAsciiStrings(StringBuilder builder, byte[] buffer, int bufferLength) {
             // Valid ASCII values (ignore control characters).
             final int minimumAscii = 32;  // 32 = space character
             final int maximumAscii = 126; // 127 = delete character
             final int minimumAsciiStringLength = 4; // Minimum length of an ASCII string to include.
             String delimitingCharacter = "❙"; // Non ascii character, to allow easier log filtering.
 
-            final int length = buffer.length;
+            final int length = bufferLength;
             int start = 0;
             int end = 0;
             while (end < length) {
@@ -75,13 +163,32 @@ public final class LithoFilterPatch {
         }
     }
 
+    static {
+        // Buffer groups created by the filters are searched together.
+        LithoFilterBufferScan.beginRegistration();
+    }
+
     private static final Filter[] filters = new Filter[]{
             new DummyFilter() // Replaced by patch.
     };
 
-    private static final StringTrieSearch pathSearchTree = new StringTrieSearch();
-    private static final StringTrieSearch identifierSearchTree = new StringTrieSearch();
-    private static final StringTrieSearch allValueSearchTree = new StringTrieSearch();
+    /**
+     * Search trees use an Aho-Corasick automaton,
+     * so each path and value is searched with a single pass regardless of the number of filters.
+     */
+    private static final CharSequenceTrieSearch pathSearchTree = new CharSequenceTrieSearch(true);
+    private static final CharSequenceTrieSearch identifierSearchTree = new CharSequenceTrieSearch(true);
+    private static final CharSequenceTrieSearch allValueSearchTree = new CharSequenceTrieSearch(true);
+    /**
+     * Paths that must match the start of the path.
+     * Searched with a single walk of the tree, so the automaton is not needed.
+     */
+    private static final CharSequenceTrieSearch pathStartsWithSearchTree = new CharSequenceTrieSearch();
+
+    /**
+     * Results of the identifier and path filters, for components that only use cacheable filters.
+     */
+    private static final FilterVerdictCache verdictCache = new FilterVerdictCache();
 
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
@@ -91,36 +198,168 @@ public final class LithoFilterPatch {
      */
     private static final ThreadLocal<ByteBuffer> bufferThreadLocal = new ThreadLocal<>();
 
+    /**
+     * Parameters reused by each calling thread, to avoid an allocation for every filtered component.
+     */
+    private static final ThreadLocal<LithoFilterParameters> parametersThreadLocal = new ThreadLocal<>();
+
+    /**
+     * Array a direct buffer is copied to, reused by each calling thread.
+     * <p>
+     * The array only grows, except if it becomes much larger than the components it holds.
+     * Bytes after {@link #length} are always zero, so the filters given the whole array
+     * do not match old bytes of a previous larger component.
+     */
+    private static final class DirectBufferCopy {
+        /**
+         * Arrays larger than this and four times the buffer size are replaced with a smaller array.
+         */
+        private static final int SHRINK_MINIMUM_LENGTH = 64 * 1024;
+
+        byte[] array = EMPTY_BYTE_ARRAY;
+        /**
+         * Length of the buffer copied to the array.
+         */
+        int length;
+
+        void copy(ByteBuffer buffer) {
+            final int bufferLength = buffer.remaining();
+            if (array.length < bufferLength
+                    || (array.length > SHRINK_MINIMUM_LENGTH && array.length / 4 > bufferLength)) {
+                array = new byte[bufferLength];
+            } else if (length > bufferLength) {
+                Arrays.fill(array, bufferLength, length, (byte) 0);
+            }
+            buffer.duplicate().get(array, 0, bufferLength); // Duplicate so the buffer position is unchanged.
+            length = bufferLength;
+        }
+    }
+
+    private static final ThreadLocal<DirectBufferCopy> directBufferCopyThreadLocal = new ThreadLocal<>();
+
+    /**
+     * @return The buffer of the component. A copied direct buffer can be longer than the buffer,
+     *         use {@link #getBufferLength(byte[])} for the length of the buffer content.
+     */
+    private static byte[] getBufferArray() {
+        ByteBuffer protobufBuffer = bufferThreadLocal.get();
+        // Potentially the buffer may have been null or never set up until now.
+        // Use an empty buffer so the litho id or path filters still work correctly.
+        if (protobufBuffer == null) {
+            Logger.printDebug(() -> "Proto buffer is null, using an empty buffer array");
+            return EMPTY_BYTE_ARRAY;
+        }
+        if (!protobufBuffer.hasArray()) {
+            // Filters require an array, and a direct buffer has no backing array.
+            // Direct buffers are pooled and refilled with different components,
+            // so the buffer is copied for every component to an array reused by this thread.
+            DirectBufferCopy copy = directBufferCopyThreadLocal.get();
+            if (copy == null) {
+                copy = new DirectBufferCopy();
+                directBufferCopyThreadLocal.set(copy);
+            }
+            copy.copy(protobufBuffer);
+            return copy.array;
+        }
+        return protobufBuffer.array();
+    }
+
+    /**
+     * @return The length of the buffer content in an array from {@link #getBufferArray()}.
+     */
+    private static int getBufferLength(byte[] bufferArray) {
+        DirectBufferCopy copy = directBufferCopyThreadLocal.get();
+        return copy != null && copy.array == bufferArray
+                ? copy.length
+                : bufferArray.length;
+    }
+
+    /**
+     * Filters are given the entire array of a heap buffer, and the component can use only part of the array.
+     *
+     * @param bufferArray Buffer array given to a filter by the calling thread.
+     * @return Key hash of only the buffer content of the component,
+     *         for a {@link FilterVerdictCache} of buffer verdicts.
+     */
+    public static long bufferContentKeyHash(byte[] bufferArray) {
+        ByteBuffer protobufBuffer = bufferThreadLocal.get();
+        if (protobufBuffer != null && protobufBuffer.hasArray() && protobufBuffer.array() == bufferArray) {
+            final int offset = protobufBuffer.arrayOffset();
+            return FilterVerdictCache.keyHash(bufferArray,
+                    offset + protobufBuffer.position(), offset + protobufBuffer.limit());
+        }
+        return FilterVerdictCache.keyHash(bufferArray, 0, getBufferLength(bufferArray));
+    }
+
     static {
         for (Filter filter : filters) {
             filterUsingCallbacks(identifierSearchTree, filter,
                     filter.identifierCallbacks, Filter.FilterContentType.IDENTIFIER);
             filterUsingCallbacks(pathSearchTree, filter,
                     filter.pathCallbacks, Filter.FilterContentType.PATH);
+            filterUsingCallbacks(pathStartsWithSearchTree, filter,
+                    filter.pathStartsWithCallbacks, Filter.FilterContentType.PATH);
             filterUsingCallbacks(allValueSearchTree, filter,
                     filter.allValueCallbacks, Filter.FilterContentType.ALLVALUE);
         }
 
+        LithoFilterBufferScan.finishRegistration();
+
+        if (BaseSettings.LITHO_FILTER_ADAPTIVE_CALLBACK_ORDER.get()) {
+            identifierSearchTree.setAdaptiveCallbackOrder(true);
+            pathSearchTree.setAdaptiveCallbackOrder(true);
+            pathStartsWithSearchTree.setAdaptiveCallbackOrder(true);
+            allValueSearchTree.setAdaptiveCallbackOrder(true);
+        }
+
+        // All filters are registered. Compile the trees into their faster array form.
+        identifierSearchTree.freeze();
+        pathSearchTree.freeze();
+        pathStartsWithSearchTree.freeze();
+        allValueSearchTree.freeze();
+
         Logger.printDebug(() -> "Using: "
                 + identifierSearchTree.numberOfPatterns() + " identifier filters"
                 + " (" + identifierSearchTree.getEstimatedMemorySize() + " KB), "
                 + pathSearchTree.numberOfPatterns() + " path filters"
-                + " (" + pathSearchTree.getEstimatedMemorySize() + " KB)");
+                + " (" + pathSearchTree.getEstimatedMemorySize() + " KB), "
+                + pathStartsWithSearchTree.numberOfPatterns() + " path starts with filters");
     }
 
-    private static void filterUsingCallbacks(StringTrieSearch pathSearchTree,
+    private static void filterUsingCallbacks(CharSequenceTrieSearch pathSearchTree,
                                              Filter filter, List<StringFilterGroup> groups,
                                              Filter.FilterContentType type) {
+        final boolean cacheable = filter.isCacheable();
         for (StringFilterGroup group : groups) {
             if (!group.includeInSearch()) {
                 continue;
             }
+            LithoFilterStatistics.GroupCounters counters = LithoFilterStatistics.registerGroup(filter, group, type);
             for (String pattern : group.filters) {
                 pathSearchTree.addPattern(pattern, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
-                            if (!group.isEnabled()) return false;
                             LithoFilterParameters parameters = (LithoFilterParameters) callbackParameter;
-                            return filter.isFiltered(parameters.path, parameters.identifier, parameters.allValue, parameters.protoBuffer,
-                                    group, type, matchedStartIndex);
+                            final boolean recordStatistics = LithoFilterStatistics.isEnabled();
+                            if (recordStatistics) {
+                                counters.recordMatch();
+                            }
+                            if (!group.isEnabled()) return false;
+                            if (!cacheable) {
+                                parameters.resultCacheable = false;
+                            }
+                            final boolean filtered;
+                            if (!recordStatistics) {
+                                filtered = filter.isFiltered(parameters.getPath(), parameters.identifier, parameters.getAllValue(), parameters.protoBuffer,
+                                        group, type, matchedStartIndex);
+                            } else {
+                                final long startTime = System.nanoTime();
+                                filtered = filter.isFiltered(parameters.getPath(), parameters.identifier, parameters.getAllValue(), parameters.protoBuffer,
+                                        group, type, matchedStartIndex);
+                                counters.recordCall(System.nanoTime() - startTime, filtered);
+                            }
+                            if (filtered) {
+                                parameters.filteredGroupIndex = counters.index;
+                            }
+                            return filtered;
                         }
                 );
             }
@@ -147,34 +386,67 @@ public final class LithoFilterPatch {
                 return false;
             }
 
-            ByteBuffer protobufBuffer = bufferThreadLocal.get();
-            final byte[] bufferArray;
-            // Potentially the buffer may have been null or never set up until now.
-            // Use an empty buffer so the litho id or path filters still work correctly.
-            if (protobufBuffer == null) {
-                Logger.printDebug(() -> "Proto buffer is null, using an empty buffer array");
-                bufferArray = EMPTY_BYTE_ARRAY;
-            } else if (!protobufBuffer.hasArray()) {
-                Logger.printDebug(() -> "Proto buffer does not have an array, using an empty buffer array");
-                bufferArray = EMPTY_BYTE_ARRAY;
-            } else {
-                bufferArray = protobufBuffer.array();
-            }
-
-            LithoFilterParameters parameter = new LithoFilterParameters(pathBuilder.toString(), identifier,
-                    object.toString(), bufferArray);
-            Logger.printDebug(() -> "Searching " + parameter);
-
-            if (parameter.identifier != null && identifierSearchTree.matches(parameter.identifier, parameter)) {
-                return true;
+            byte[] bufferArray = null;
+            if (LithoFilterCapture.isEnabled()) {
+                bufferArray = getBufferArray();
+                LithoFilterCapture.capture(pathBuilder, identifier, object, bufferArray, getBufferLength(bufferArray));
             }
 
-            if (pathSearchTree.matches(parameter.path, parameter)) {
+            final long cacheKey = FilterVerdictCache.keyHash(identifier, pathBuilder);
+            final int cachedVerdict = verdictCache.get(cacheKey);
+            if (LithoFilterStatistics.isEnabled()) {
+                LithoFilterStatistics.recordComponent(cachedVerdict != FilterVerdictCache.NOT_CACHED);
+                if (cachedVerdict >= FilterVerdictCache.FILTERED) {
+                    // Tag is the group index plus one.
+                    LithoFilterStatistics.recordCachedFilter(cachedVerdict - FilterVerdictCache.FILTERED - 1);
+                }
+            }
+            if (cachedVerdict >= FilterVerdictCache.FILTERED) {
                 return true;
             }
+            if (cachedVerdict == FilterVerdictCache.NOT_FILTERED && allValueSearchTree.numberOfPatterns() == 0) {
+                return false;
+            }
 
-            if (allValueSearchTree.matches(parameter.allValue, parameter)) {
-                return true;
+            if (bufferArray == null) {
+                bufferArray = getBufferArray();
+            }
+            LithoFilterParameters parameter = parametersThreadLocal.get();
+            if (parameter == null) {
+                parameter = new LithoFilterParameters(LithoFilterBufferScan.getThreadScan());
+                parametersThreadLocal.set(parameter);
+            }
+            parameter.setValues(pathBuilder, identifier, object, bufferArray, getBufferLength(bufferArray));
+
+            try {
+                if (BaseSettings.ENABLE_DEBUG_LOGGING.get()) {
+                    // Log statement is inside a check so the lambda is not created unless needed.
+                    LithoFilterParameters logParameter = parameter;
+                    Logger.printDebug(() -> "Searching " + logParameter);
+                }
+
+                if (cachedVerdict == FilterVerdictCache.NOT_CACHED) {
+                    final boolean filtered = (identifier != null && identifierSearchTree.matches(identifier, parameter))
+                            || pathStartsWithSearchTree.matchesStartOf(pathBuilder, parameter)
+                            || pathSearchTree.matches(pathBuilder, parameter);
+                    if (parameter.resultCacheable) {
+                        // Tag the result with the group that filtered, so statistics can count cached results.
+                        final int groupIndex = parameter.filteredGroupIndex;
+                        verdictCache.put(cacheKey, filtered,
+                                groupIndex < FilterVerdictCache.MAX_FILTERED_TAG ? groupIndex + 1 : 0);
+                    }
+                    if (filtered) {
+                        return true;
+                    }
+                }
+
+                // Only create the all value String if it can be filtered.
+                if (allValueSearchTree.numberOfPatterns() != 0
+                        && allValueSearchTree.matches(parameter.getAllValue(), parameter)) {
+                    return true;
+                }
+            } finally {
+                parameter.clear();
             }
         } catch (Exception ex) {
             Logger.printException(() -> "Litho filter failure", ex);
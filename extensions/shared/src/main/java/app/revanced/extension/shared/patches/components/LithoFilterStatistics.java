@@ -0,0 +1,211 @@
+package app.revanced.extension.shared.patches.components;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import app.revanced.extension.shared.settings.BaseSettings;
+
+/**
+ * Counters of how often each Litho filter and filter group is used, and how much time the filters use.
+ * <p>
+ * Counters are only updated if {@link BaseSettings#ENABLE_LITHO_FILTER_STATISTICS} is enabled.
+ * Litho filtering is multi-threaded, so {@link LongAdder} is used to reduce contention between threads.
+ */
+public final class LithoFilterStatistics {
+
+    static class Counters {
+        /**
+         * Number of times a pattern matched, including groups that are not enabled.
+         */
+        final LongAdder matches = new LongAdder();
+        /**
+         * Number of times the filter was called.
+         */
+        final LongAdder calls = new LongAdder();
+        /**
+         * Number of times the filter hid the component.
+         */
+        final LongAdder filtered = new LongAdder();
+        /**
+         * Number of times the component was hidden using a cached result of the filter,
+         * without calling the filter. Included in {@link #filtered}.
+         */
+        final LongAdder cachedFiltered = new LongAdder();
+        /**
+         * Total time used by the filter.
+         */
+        final LongAdder nanoseconds = new LongAdder();
+
+        void reset() {
+            matches.reset();
+            calls.reset();
+            filtered.reset();
+            cachedFiltered.reset();
+            nanoseconds.reset();
+        }
+
+        void appendTo(StringBuilder builder) {
+            builder.append("calls: ").append(calls.sum());
+            builder.append(" matches: ").append(matches.sum());
+            builder.append(" filtered: ").append(filtered.sum());
+            builder.append(" (cached: ").append(cachedFiltered.sum()).append(')');
+            builder.append(" time: ").append(TimeUnit.NANOSECONDS.toMillis(nanoseconds.sum())).append(" ms");
+        }
+    }
+
+    /**
+     * Counters of a single filter group. Updating also updates the counters of the filter that owns the group.
+     */
+    static final class GroupCounters extends Counters {
+        /**
+         * Index of this group in {@link #groups}.
+         */
+        final int index;
+        final String name;
+        final Counters filterCounters;
+
+        GroupCounters(int index, String name, Counters filterCounters) {
+            this.index = index;
+            this.name = name;
+            this.filterCounters = filterCounters;
+        }
+
+        void recordMatch() {
+            matches.increment();
+            filterCounters.matches.increment();
+        }
+
+        void recordCall(long nanoseconds, boolean filtered) {
+            calls.increment();
+            this.nanoseconds.add(nanoseconds);
+            filterCounters.calls.increment();
+            filterCounters.nanoseconds.add(nanoseconds);
+            if (filtered) {
+                this.filtered.increment();
+                filterCounters.filtered.increment();
+            }
+        }
+
+        void recordCachedFilter() {
+            filtered.increment();
+            cachedFiltered.increment();
+            filterCounters.filtered.increment();
+            filterCounters.cachedFiltered.increment();
+        }
+    }
+
+    /**
+     * Counters of components that were filtered.
+     */
+    private static final LongAdder components = new LongAdder();
+    private static final LongAdder componentsCached = new LongAdder();
+
+    /**
+     * Key is the filter, and value is the filter counters.
+     * Only modified while {@link LithoFilterPatch} is initialized.
+     */
+    private static final Map<Filter, Counters> filterCounters = new IdentityHashMap<>();
+    private static final Map<Counters, List<GroupCounters>> groupCounters = new IdentityHashMap<>();
+    /**
+     * All groups in the order they were registered.
+     * Only modified while {@link LithoFilterPatch} is initialized.
+     */
+    private static final List<GroupCounters> groups = new ArrayList<>();
+
+    private LithoFilterStatistics() {
+    }
+
+    public static boolean isEnabled() {
+        return BaseSettings.ENABLE_LITHO_FILTER_STATISTICS.get();
+    }
+
+    static synchronized GroupCounters registerGroup(Filter filter, StringFilterGroup group,
+                                                   Filter.FilterContentType type) {
+        Counters counters = filterCounters.get(filter);
+        if (counters == null) {
+            counters = new Counters();
+            filterCounters.put(filter, counters);
+            groupCounters.put(counters, new ArrayList<>());
+        }
+        GroupCounters groupCounter = new GroupCounters(groups.size(),
+                type + " " + Arrays.toString(group.filters), counters);
+        //noinspection DataFlowIssue
+        groupCounters.get(counters).add(groupCounter);
+        groups.add(groupCounter);
+        return groupCounter;
+    }
+
+    static void recordComponent(boolean usedCache) {
+        components.increment();
+        if (usedCache) {
+            componentsCached.increment();
+        }
+    }
+
+    /**
+     * A component was hidden using a cached result, instead of calling the filter of the group.
+     *
+     * @param groupIndex {@link GroupCounters#index} of the group that filtered the component
+     *                   when the result was cached.
+     */
+    static void recordCachedFilter(int groupIndex) {
+        if (groupIndex >= 0 && groupIndex < groups.size()) {
+            groups.get(groupIndex).recordCachedFilter();
+        }
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public static synchronized void reset() {
+        components.reset();
+        componentsCached.reset();
+        for (Map.Entry<Counters, List<GroupCounters>> entry : groupCounters.entrySet()) {
+            entry.getKey().reset();
+            for (GroupCounters group : entry.getValue()) {
+                group.reset();
+            }
+        }
+    }
+
+    /**
+     * @return All counters as text, with the filters that used the most time listed first.
+     */
+    @NonNull
+    public static synchronized String getStatisticsText() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Components: ").append(components.sum());
+        builder.append(" (cached: ").append(componentsCached.sum()).append(")\n");
+
+        List<Map.Entry<Filter, Counters>> filters = new ArrayList<>(filterCounters.entrySet());
+        Collections.sort(filters, (o1, o2) ->
+                Long.compare(o2.getValue().nanoseconds.sum(), o1.getValue().nanoseconds.sum()));
+
+        for (Map.Entry<Filter, Counters> entry : filters) {
+            Counters counters = entry.getValue();
+            builder.append('\n').append(entry.getKey().getClass().getSimpleName()).append(' ');
+            counters.appendTo(builder);
+            builder.append('\n');
+
+            //noinspection DataFlowIssue
+            for (GroupCounters group : groupCounters.get(counters)) {
+                if (group.matches.sum() == 0 && group.cachedFiltered.sum() == 0) {
+                    continue;
+                }
+                builder.append("  ").append(group.name).append(' ');
+                group.appendTo(builder);
+                builder.append('\n');
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -4,6 +4,6 @@ import app.revanced.extension.shared.utils.StringTrieSearch;
 
 public final class StringFilterGroupList extends FilterGroupList<String, StringFilterGroup> {
     protected StringTrieSearch createSearchGraph() {
-        return new StringTrieSearch();
+        return new StringTrieSearch(true);
     }
 }
@@ -1,18 +1,29 @@
 package app.revanced.extension.shared.requests;
 
+import android.util.JsonReader;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 import app.revanced.extension.shared.utils.PackageUtils;
 
+/**
+ * Connections use the platform {@link HttpURLConnection}, which keeps connections alive
+ * in a per-host pool and transparently requests and decompresses gzip responses.
+ * A pooled connection is only reused if the previous response was fully read and closed,
+ * and the connection was not disconnected. Any response that is not parsed should be released
+ * with {@link #releaseConnection(HttpURLConnection)}, so the next request to the same host
+ * does not need a new TCP connection and TLS handshake.
+ */
 @SuppressWarnings("unused")
 public class Requester {
     private Requester() {
@@ -36,21 +47,59 @@ public class Requester {
         return connection;
     }
 
+    /**
+     * Reads and discards the remaining response data, and closes the response stream.
+     * This returns the connection to the keep-alive pool, unlike {@link HttpURLConnection#disconnect()}
+     * which closes the connection.
+     * <p>
+     * Should be used for responses that are not parsed, such as when only the response code is used.
+     */
+    public static void releaseConnection(HttpURLConnection connection) {
+        try {
+            InputStream inputStream = connection.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getInputStream()
+                    : connection.getErrorStream();
+            if (inputStream == null) {
+                return; // No response data.
+            }
+            try (inputStream) {
+                byte[] buffer = new byte[1024];
+                //noinspection StatementWithEmptyBody
+                while (inputStream.read(buffer) != -1) {
+                }
+            }
+        } catch (IOException ex) {
+            // Connection is in an unknown state and cannot be reused.
+            connection.disconnect();
+        }
+    }
+
     /**
      * Parse the {@link HttpURLConnection}, and closes the underlying InputStream.
      */
     private static String parseInputStreamAndClose(InputStream inputStream) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            StringBuilder jsonBuilder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonBuilder.append(line);
-                jsonBuilder.append('\n');
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[4096];
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, length);
             }
-            return jsonBuilder.toString();
+            return builder.toString();
         }
     }
 
+    /**
+     * Parse the {@link HttpURLConnection} response as a stream of JSON tokens.
+     * Values are decoded directly from the response as they are read,
+     * without first reading the entire response into a String or building a JSON tree.
+     * <p>
+     * The caller must close the reader. This does not close the url connection.
+     */
+    public static JsonReader parseJsonReader(HttpURLConnection connection) throws IOException {
+        return new JsonReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+    }
+
     /**
      * Parse the {@link HttpURLConnection} response as a String.
      * This does not close the url connection. If further requests to this host are unlikely
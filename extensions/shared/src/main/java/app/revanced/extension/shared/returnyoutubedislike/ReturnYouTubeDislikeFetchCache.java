@@ -0,0 +1,197 @@
+package app.revanced.extension.shared.returnyoutubedislike;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Thread safe cache of RYD fetches by video id, used by the YouTube and YouTube Music RYD implementations.
+ * <p>
+ * Looking up a cached fetch does not lock and does not depend on the number of cached fetches.
+ * Expired fetches are replaced when they are looked up,
+ * and all expired fetches are removed together only occasionally when new fetches are added.
+ * If the cache is over the maximum size, the least recently used fetches are also removed
+ * until the cache is down to {@link #TRIM_SIZE}, so the next purge by size is only after many more fetches are added.
+ */
+public final class ReturnYouTubeDislikeFetchCache<T> {
+
+    public interface ExpirationCheck<T> {
+        boolean isExpired(T value, long now);
+    }
+
+    /**
+     * Maximum number of fetches to keep. Can be exceeded until the next purge.
+     */
+    private static final int MAX_SIZE = 500;
+
+    /**
+     * Size the cache is reduced to when it is over {@link #MAX_SIZE}.
+     */
+    private static final int TRIM_SIZE = MAX_SIZE * 3 / 4;
+
+    /**
+     * Minimum time between purges of expired fetches.
+     */
+    private static final long PURGE_INTERVAL_MILLISECONDS = 60 * 1000; // 1 Minute
+
+    private static final class Node<T> {
+        final T value;
+        volatile long lastAccessTime;
+
+        Node(T value, long now) {
+            this.value = value;
+            this.lastAccessTime = now;
+        }
+    }
+
+    private final Map<String, Node<T>> cache = new ConcurrentHashMap<>();
+    private final Function<String, T> fetchFactory;
+    private final ExpirationCheck<T> expirationCheck;
+
+    private volatile long lastPurgeTime;
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    /**
+     * @param fetchFactory    Creates a new fetch for a video id. Must not block, as it's called while the
+     *                        video id is locked and can be called by the main thread.
+     * @param expirationCheck If a fetch is expired. Must not block.
+     */
+    public ReturnYouTubeDislikeFetchCache(@NonNull Function<String, T> fetchFactory,
+                                          @NonNull ExpirationCheck<T> expirationCheck) {
+        this.fetchFactory = Objects.requireNonNull(fetchFactory);
+        this.expirationCheck = Objects.requireNonNull(expirationCheck);
+    }
+
+    /**
+     * @return The cached fetch of the video, or a new fetch if none is cached or the cached fetch is expired.
+     */
+    @NonNull
+    public T get(@NonNull String videoId) {
+        Objects.requireNonNull(videoId);
+        final long now = System.currentTimeMillis();
+
+        Node<T> node = cache.get(videoId);
+        if (node != null && !expirationCheck.isExpired(node.value, now)) {
+            node.lastAccessTime = now;
+            return node.value;
+        }
+
+        // Only the video id is locked, and only while a new fetch is created.
+        node = cache.compute(videoId, (key, existing) -> {
+            if (existing != null && !expirationCheck.isExpired(existing.value, now)) {
+                existing.lastAccessTime = now;
+                return existing; // Another thread added a fetch.
+            }
+            if (existing != null) {
+                Logger.printDebug(() -> "Replacing expired fetch: " + key);
+            }
+            return new Node<>(fetchFactory.apply(key), now);
+        });
+
+        purgeIfNeeded(now);
+        return node.value;
+    }
+
+    /**
+     * @return The cached fetch of the video, or null if none is cached or the cached fetch is expired.
+     */
+    @Nullable
+    public T getIfCached(@NonNull String videoId) {
+        Node<T> node = cache.get(Objects.requireNonNull(videoId));
+        return node == null || expirationCheck.isExpired(node.value, System.currentTimeMillis())
+                ? null
+                : node.value;
+    }
+
+    /**
+     * Removes the fetch of the video, if it was not already replaced by a different fetch.
+     */
+    public void remove(@NonNull String videoId, @NonNull T value) {
+        Node<T> node = cache.get(Objects.requireNonNull(videoId));
+        if (node != null && node.value == value) {
+            cache.remove(videoId, node);
+        }
+    }
+
+    /**
+     * Calls the action for all cached fetches.
+     */
+    public void forEach(@NonNull Consumer<T> action) {
+        for (Node<T> node : cache.values()) {
+            action.accept(node.value);
+        }
+    }
+
+    private void purgeIfNeeded(long now) {
+        final boolean oversized = cache.size() > MAX_SIZE;
+        if (!oversized && now - lastPurgeTime < PURGE_INTERVAL_MILLISECONDS) {
+            return;
+        }
+        if (!purging.compareAndSet(false, true)) {
+            return; // Another thread is purging.
+        }
+        try {
+            lastPurgeTime = now;
+            purge(now, oversized);
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    /**
+     * @param oversized If the cache was over the maximum size, and least recently used fetches must be removed.
+     */
+    private void purge(long now, boolean oversized) {
+        List<Map.Entry<String, Node<T>>> remaining = new ArrayList<>(cache.size());
+        for (Map.Entry<String, Node<T>> entry : cache.entrySet()) {
+            Node<T> node = entry.getValue();
+            if (expirationCheck.isExpired(node.value, now)) {
+                // Remove only if the fetch was not replaced by another thread.
+                if (cache.remove(entry.getKey(), node)) {
+                    Logger.printDebug(() -> "Removing expired fetch: " + entry.getKey());
+                }
+            } else {
+                remaining.add(entry);
+            }
+        }
+
+        if (!oversized && remaining.size() <= MAX_SIZE) {
+            return;
+        }
+        final int removeCount = remaining.size() - TRIM_SIZE;
+        if (removeCount <= 0) {
+            return;
+        }
+        // Access times can change while purging, so sort a copy of the times.
+        long[] accessTimes = new long[remaining.size()];
+        for (int i = 0, size = remaining.size(); i < size; i++) {
+            accessTimes[i] = remaining.get(i).getValue().lastAccessTime;
+        }
+        Arrays.sort(accessTimes);
+        final long newestAccessTimeToRemove = accessTimes[removeCount - 1];
+
+        int removed = 0;
+        for (Map.Entry<String, Node<T>> entry : remaining) {
+            if (removed == removeCount) {
+                break;
+            }
+            Node<T> node = entry.getValue();
+            if (node.lastAccessTime <= newestAccessTimeToRemove && cache.remove(entry.getKey(), node)) {
+                removed++;
+            }
+        }
+        final int removedCount = removed;
+        Logger.printDebug(() -> "Removed least recently used fetches: " + removedCount);
+    }
+}
@@ -2,11 +2,15 @@ package app.revanced.extension.shared.returnyoutubedislike.requests;
 
 import static app.revanced.extension.shared.returnyoutubedislike.ReturnYouTubeDislike.Vote;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.json.JSONException;
-import org.json.JSONObject;
+
+import java.io.IOException;
 
 import app.revanced.extension.shared.utils.Logger;
 
@@ -46,33 +50,85 @@ public final class RYDVoteData {
     private volatile float dislikePercentage;
 
     @Nullable
-    private static Long getLongIfExist(JSONObject json, String key) throws JSONException {
-        return json.isNull(key)
-                ? null
-                : json.getLong(key);
+    private static Long nextLongOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextLong();
     }
 
     /**
-     * @throws JSONException if JSON parse error occurs, or if the values make no sense (ie: negative values)
+     * Reads the vote data object, without first reading the response into a String or JSON tree.
+     *
+     * @throws JSONException if a value is missing, or if the values make no sense (ie: negative values)
      */
-    public RYDVoteData(@NonNull JSONObject json) throws JSONException {
-        videoId = json.getString("id");
-        viewCount = json.getLong("viewCount");
+    @NonNull
+    public static RYDVoteData fromJson(@NonNull JsonReader reader) throws IOException, JSONException {
+        String id = null;
+        long views = -1;
+        long likes = -1;
+        Long rawLikes = null;
+        long dislikes = -1;
+        Long rawDislikes = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = reader.nextString();
+                case "viewCount" -> views = reader.nextLong();
+                case "likes" -> likes = reader.nextLong();
+                case "rawLikes" -> rawLikes = nextLongOrNull(reader);
+                case "dislikes" -> dislikes = reader.nextLong();
+                case "rawDislikes" -> rawDislikes = nextLongOrNull(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
 
-        fetchedLikeCount = json.getLong("likes");
-        fetchedRawLikeCount = getLongIfExist(json, "rawLikes");
+        if (id == null || views < 0 || likes < 0 || dislikes < 0) {
+            throw new JSONException("Unexpected JSON values. id: " + id + " viewCount: " + views
+                    + " likes: " + likes + " dislikes: " + dislikes);
+        }
+        return new RYDVoteData(id, views, likes, rawLikes, dislikes, rawDislikes);
+    }
 
-        fetchedDislikeCount = json.getLong("dislikes");
-        fetchedRawDislikeCount = getLongIfExist(json, "rawDislikes");
+    /**
+     * @param likes    Like count as fetched, before any user vote is applied.
+     * @param dislikes Dislike count as fetched, before any user vote is applied.
+     */
+    RYDVoteData(@NonNull String videoId, long viewCount, long likes, @Nullable Long rawLikes,
+                long dislikes, @Nullable Long rawDislikes) {
+        this.videoId = videoId;
+        this.viewCount = viewCount;
+        fetchedLikeCount = likes;
+        fetchedRawLikeCount = rawLikes;
+        fetchedDislikeCount = dislikes;
+        fetchedRawDislikeCount = rawDislikes;
 
-        if (viewCount < 0 || fetchedLikeCount < 0 || fetchedDislikeCount < 0) {
-            throw new JSONException("Unexpected JSON values: " + json);
-        }
         likeCount = fetchedLikeCount;
         dislikeCount = fetchedDislikeCount;
         updateUsingVote(Vote.LIKE_REMOVE); // Calculate percentages.
     }
 
+    long getFetchedLikeCount() {
+        return fetchedLikeCount;
+    }
+
+    @Nullable
+    Long getFetchedRawLikeCount() {
+        return fetchedRawLikeCount;
+    }
+
+    long getFetchedDislikeCount() {
+        return fetchedDislikeCount;
+    }
+
+    @Nullable
+    Long getFetchedRawDislikeCount() {
+        return fetchedRawDislikeCount;
+    }
+
     /**
      * Public like count of the video, as reported by YT when RYD last updated it's data.
      * <p>
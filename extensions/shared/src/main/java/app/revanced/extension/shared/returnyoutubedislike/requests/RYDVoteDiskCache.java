@@ -0,0 +1,425 @@
+package app.revanced.extension.shared.returnyoutubedislike.requests;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Persistent cache of fetched vote data, so the dislikes of recently seen videos
+ * are shown without waiting for a network call, including after the app is restarted.
+ * <p>
+ * Cached data older than {@link #FRESH_MILLISECONDS} is still used,
+ * but the votes are fetched again in the background and the cache is updated for the next use.
+ * The refreshed votes are not pushed to the video already showing the stale votes,
+ * so the displayed dislikes only change the next time the video is bound and fetches the votes again.
+ * <p>
+ * Entries are kept in memory, and each fetch is appended to a log file.
+ * The file is read once when the cache is first used, and later records replace earlier records of the same video.
+ * If the file has many more records than the cache, it is rewritten with only the current entries.
+ * The least recently used videos are removed when the cache is full.
+ * <p>
+ * File format:
+ * <pre>
+ * int    MAGIC
+ * record...
+ *
+ * Record:
+ * int    data length
+ * data:
+ *   string video id (modified UTF-8, as written by DataOutput)
+ *   long   time fetched
+ *   long   view count
+ *   long   like count
+ *   long   raw like count (-1 if null)
+ *   long   dislike count
+ *   long   raw dislike count (-1 if null)
+ * int    CRC32 of the data
+ * </pre>
+ * The app can be closed at any time. An incomplete or corrupt record ends the file,
+ * and the file is truncated to the last complete record so later records are appended after it.
+ * Records with impossible values are ignored.
+ */
+public final class RYDVoteDiskCache {
+    private static final String FILE_NAME = "revanced_ryd_votes.bin";
+    private static final int MAGIC = 0x52594432; // "RYD2"
+
+    /**
+     * Longest possible record data, with the longest video id the modified UTF-8 string can have.
+     */
+    private static final int MAX_RECORD_DATA_LENGTH = 2 + 65535 + 6 * 8;
+
+    /**
+     * Largest vote or view count accepted when loading. Larger values are from a corrupt file.
+     */
+    private static final long MAX_COUNT = 1_000_000_000_000L;
+
+    /**
+     * Maximum number of videos to cache.
+     */
+    private static final int MAX_ENTRIES = 2000;
+
+    /**
+     * Number of replaced or removed records in the file, before the file is rewritten.
+     */
+    private static final int MAX_OBSOLETE_FILE_RECORDS = 1000;
+
+    /**
+     * How long cached data is used without fetching again.
+     */
+    private static final long FRESH_MILLISECONDS = 7 * 60 * 1000; // 7 Minutes
+
+    /**
+     * How long cached data is used at all. Older data is removed.
+     */
+    private static final long MAX_AGE_MILLISECONDS = 24 * 60 * 60 * 1000; // 1 Day
+
+    private static final class Entry {
+        final long timeFetched;
+        final long viewCount;
+        final long likes;
+        final long rawLikes;
+        final long dislikes;
+        final long rawDislikes;
+
+        Entry(long timeFetched, long viewCount, long likes, long rawLikes, long dislikes, long rawDislikes) {
+            this.timeFetched = timeFetched;
+            this.viewCount = viewCount;
+            this.likes = likes;
+            this.rawLikes = rawLikes;
+            this.dislikes = dislikes;
+            this.rawDislikes = rawDislikes;
+        }
+
+        RYDVoteData toVoteData(String videoId) {
+            return new RYDVoteData(videoId, viewCount, likes, toNullable(rawLikes), dislikes, toNullable(rawDislikes));
+        }
+
+        /**
+         * @return If the values can be from a fetch, and are not from a corrupt file.
+         */
+        boolean isValid(long now) {
+            return timeFetched > 0 && timeFetched <= now
+                    && isValidCount(viewCount) && isValidCount(likes) && isValidCount(dislikes)
+                    && (rawLikes == -1 || isValidCount(rawLikes))
+                    && (rawDislikes == -1 || isValidCount(rawDislikes));
+        }
+
+        private static boolean isValidCount(long count) {
+            return count >= 0 && count <= MAX_COUNT;
+        }
+    }
+
+    /**
+     * Cached entries in least recently used order. Null until the file is read.
+     */
+    @Nullable
+    @GuardedBy("RYDVoteDiskCache.class")
+    private static Map<String, Entry> entries;
+
+    /**
+     * Number of records in the file.
+     */
+    @GuardedBy("RYDVoteDiskCache.class")
+    private static int fileRecordCount;
+
+    /**
+     * Writes to the file, one at a time and in the same order the entries were changed.
+     */
+    private static final ExecutorService fileWriteExecutor = Executors.newSingleThreadExecutor();
+
+    private RYDVoteDiskCache() {
+    }
+
+    @Nullable
+    private static Long toNullable(long value) {
+        return value < 0 ? null : value;
+    }
+
+    private static long fromNullable(@Nullable Long value) {
+        return value == null ? -1 : value;
+    }
+
+    private static File getCacheFile() {
+        return new File(Utils.getContext().getCacheDir(), FILE_NAME);
+    }
+
+    /**
+     * Removes all cached votes, and deletes the cache file.
+     * Should be called if RYD is turned on/off.
+     */
+    public static synchronized void clear() {
+        entries = createEntries(); // The file is not read again.
+        fileRecordCount = 0;
+        fileWriteExecutor.execute(() -> {
+            //noinspection ResultOfMethodCallIgnored
+            getCacheFile().delete();
+            Logger.printDebug(() -> "Cleared RYD cache");
+        });
+    }
+
+    /**
+     * Videos with stale votes currently fetched in the background.
+     */
+    private static final Set<String> refreshingVideoIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Fetches the votes of a video, using the cached votes if available.
+     * If the cached votes are old, they are returned immediately and the votes are fetched again in the background.
+     * Only one background fetch of a video runs at a time,
+     * and the fetched votes are shown only by later calls for the same video.
+     * <p>
+     * Must be called off the main thread, as this can read the cache file and make a network call.
+     *
+     * @return The votes, or NULL if the votes are not cached and the fetch failed.
+     */
+    @Nullable
+    public static RYDVoteData fetchVotes(@NonNull String videoId) {
+        Utils.verifyOffMainThread();
+        Objects.requireNonNull(videoId);
+
+        final long now = System.currentTimeMillis();
+        final Entry entry = getEntry(videoId, now);
+        if (entry != null) {
+            if (now - entry.timeFetched > FRESH_MILLISECONDS) {
+                if (refreshingVideoIds.add(videoId)) {
+                    Logger.printDebug(() -> "Using stale cached votes, and fetching again: " + videoId);
+                    Utils.runOnBackgroundThread(() -> {
+                        try {
+                            fetchAndCacheVotes(videoId);
+                        } finally {
+                            refreshingVideoIds.remove(videoId);
+                        }
+                    });
+                } else {
+                    Logger.printDebug(() -> "Using stale cached votes, already fetching again: " + videoId);
+                }
+            } else {
+                Logger.printDebug(() -> "Using cached votes: " + videoId);
+            }
+            return entry.toVoteData(videoId);
+        }
+
+        return fetchAndCacheVotes(videoId);
+    }
+
+    @Nullable
+    private static RYDVoteData fetchAndCacheVotes(String videoId) {
+        RYDVoteData voteData = ReturnYouTubeDislikeApi.fetchVotes(videoId);
+        if (voteData != null) {
+            put(voteData, System.currentTimeMillis());
+        }
+        return voteData;
+    }
+
+    @Nullable
+    private static synchronized Entry getEntry(String videoId, long now) {
+        Map<String, Entry> map = getEntries();
+        Entry entry = map.get(videoId);
+        if (entry != null && now - entry.timeFetched > MAX_AGE_MILLISECONDS) {
+            map.remove(videoId);
+            return null;
+        }
+        return entry;
+    }
+
+    private static synchronized void put(RYDVoteData voteData, long timeFetched) {
+        final String videoId = voteData.videoId;
+        Entry entry = new Entry(timeFetched, voteData.viewCount,
+                voteData.getFetchedLikeCount(), fromNullable(voteData.getFetchedRawLikeCount()),
+                voteData.getFetchedDislikeCount(), fromNullable(voteData.getFetchedRawDislikeCount()));
+        Map<String, Entry> map = getEntries();
+        map.put(videoId, entry);
+
+        if (fileRecordCount + 1 - map.size() > MAX_OBSOLETE_FILE_RECORDS) {
+            // Copy the entries now, since the map is modified while the file is written.
+            Map<String, Entry> snapshot = new LinkedHashMap<>(map);
+            fileRecordCount = snapshot.size();
+            fileWriteExecutor.execute(() -> rewriteFile(snapshot));
+        } else {
+            fileRecordCount++;
+            fileWriteExecutor.execute(() -> appendRecord(videoId, entry));
+        }
+    }
+
+    private static Map<String, Entry> createEntries() {
+        return new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    @GuardedBy("RYDVoteDiskCache.class")
+    private static Map<String, Entry> getEntries() {
+        if (entries == null) {
+            entries = createEntries();
+            readFile(entries);
+        }
+        return entries;
+    }
+
+    @GuardedBy("RYDVoteDiskCache.class")
+    private static void readFile(Map<String, Entry> map) {
+        File file = getCacheFile();
+        final long now = System.currentTimeMillis();
+        // Length of the file up to the end of the last complete record.
+        long validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                Logger.printDebug(() -> "Deleting unknown RYD cache file");
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return;
+            }
+            validLength = Integer.BYTES;
+
+            CRC32 crc = new CRC32();
+            while (true) {
+                final int dataLength = input.readInt();
+                if (dataLength <= 0 || dataLength > MAX_RECORD_DATA_LENGTH) {
+                    Logger.printDebug(() -> "Corrupt RYD cache record length: " + dataLength);
+                    break;
+                }
+                byte[] data = new byte[dataLength];
+                input.readFully(data);
+                final int checksum = input.readInt();
+                crc.reset();
+                crc.update(data, 0, dataLength);
+                if ((int) crc.getValue() != checksum) {
+                    Logger.printDebug(() -> "Corrupt RYD cache record checksum");
+                    break;
+                }
+                validLength += Integer.BYTES + dataLength + Integer.BYTES;
+                fileRecordCount++;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(data));
+                String videoId = record.readUTF();
+                Entry entry = new Entry(record.readLong(), record.readLong(), record.readLong(),
+                        record.readLong(), record.readLong(), record.readLong());
+                if (!entry.isValid(now)) {
+                    Logger.printDebug(() -> "Ignoring invalid RYD cache record: " + videoId);
+                } else if (now - entry.timeFetched <= MAX_AGE_MILLISECONDS) {
+                    map.put(videoId, entry);
+                }
+            }
+        } catch (FileNotFoundException ex) {
+            return; // Cache was never written, or was cleared by the system.
+        } catch (EOFException ex) {
+            // End of file, or an incomplete last record.
+        } catch (IOException ex) {
+            Logger.printInfo(() -> "Could not read RYD cache file", ex);
+        } finally {
+            final int size = map.size();
+            Logger.printDebug(() -> "Loaded RYD cache entries: " + size);
+        }
+
+        truncateFile(file, validLength);
+    }
+
+    /**
+     * Removes an incomplete or corrupt end of the file, so new records are not appended after it.
+     * Called before any record is written, since records are only written after the file is read.
+     */
+    private static void truncateFile(File file, long validLength) {
+        if (file.length() <= validLength) {
+            return;
+        }
+        if (validLength == 0) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return;
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(validLength);
+            Logger.printDebug(() -> "Truncated RYD cache file to: " + validLength);
+        } catch (IOException ex) {
+            Logger.printInfo(() -> "Could not truncate RYD cache file", ex);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, String videoId, Entry entry) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(64);
+        DataOutputStream record = new DataOutputStream(data);
+        record.writeUTF(videoId);
+        record.writeLong(entry.timeFetched);
+        record.writeLong(entry.viewCount);
+        record.writeLong(entry.likes);
+        record.writeLong(entry.rawLikes);
+        record.writeLong(entry.dislikes);
+        record.writeLong(entry.rawDislikes);
+
+        byte[] bytes = data.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.writeInt((int) crc.getValue());
+    }
+
+    private static void appendRecord(String videoId, Entry entry) {
+        File file = getCacheFile();
+        final boolean newFile = file.length() == 0;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            if (newFile) {
+                output.writeInt(MAGIC);
+            }
+            writeRecord(output, videoId, entry);
+        } catch (IOException ex) {
+            Logger.printInfo(() -> "Could not write RYD cache file", ex);
+        }
+    }
+
+    /**
+     * Replaces the file with only the current entries.
+     * The new file is written separately and then renamed, so the app closing does not lose the cache.
+     */
+    private static void rewriteFile(Map<String, Entry> snapshot) {
+        File file = getCacheFile();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                    writeRecord(output, entry.getKey(), entry.getValue());
+                }
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename: " + tempFile);
+            }
+            Logger.printDebug(() -> "Rewrote RYD cache file with entries: " + snapshot.size());
+        } catch (IOException ex) {
+            Logger.printInfo(() -> "Could not rewrite RYD cache file", ex);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+    }
+}
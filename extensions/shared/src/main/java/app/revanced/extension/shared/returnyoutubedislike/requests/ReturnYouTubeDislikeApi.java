@@ -4,6 +4,7 @@ import static app.revanced.extension.shared.returnyoutubedislike.requests.Return
 import static app.revanced.extension.shared.utils.StringRef.str;
 
 import android.util.Base64;
+import android.util.JsonReader;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -175,6 +176,14 @@ public class ReturnYouTubeDislikeApi {
         timeToResumeAPICalls = 0;
     }
 
+    /**
+     * @return If API calls are temporarily paused because a rate limit was hit.
+     */
+    public static boolean isRateLimitInEffect() {
+        final long resumeTime = timeToResumeAPICalls;
+        return resumeTime != 0 && System.currentTimeMillis() <= resumeTime;
+    }
+
     /**
      * @return True, if api rate limit is in effect.
      */
@@ -287,14 +296,13 @@ public class ReturnYouTubeDislikeApi {
 
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
                 // Do not disconnect, the same server connection will likely be used again soon.
-                JSONObject json = Requester.parseJSONObject(connection);
-                try {
-                    RYDVoteData votingData = new RYDVoteData(json);
+                try (JsonReader reader = Requester.parseJsonReader(connection)) {
+                    RYDVoteData votingData = RYDVoteData.fromJson(reader);
                     updateRateLimitAndStats(timeNetworkCallStarted, false, false);
                     Logger.printDebug(() -> "Voting data fetched: " + votingData);
                     return votingData;
                 } catch (JSONException ex) {
-                    Logger.printException(() -> "Failed to parse video: " + videoId + " json: " + json, ex);
+                    Logger.printException(() -> "Failed to parse video: " + videoId, ex);
                     // fall thru to update statistics
                 }
             } else {
@@ -387,6 +395,7 @@ public class ReturnYouTubeDislikeApi {
                 return null;
             }
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
+                Requester.releaseConnection(connection);
                 Logger.printDebug(() -> "Registration confirmation successful");
                 return userId;
             }
@@ -489,6 +498,8 @@ public class ReturnYouTubeDislikeApi {
                 return false;
             }
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
+                // Do not disconnect, the same server connection will likely be used again soon.
+                Requester.releaseConnection(connection);
                 Logger.printDebug(() -> "Vote confirm successful for video: " + videoId);
                 return true;
             }
@@ -89,8 +89,11 @@ public class ChannelRequest {
             final int responseCode = connection.getResponseCode();
             if (responseCode == 200) return Requester.parseJSONObject(connection);
 
+            String responseMessage = connection.getResponseMessage();
+            // Do not disconnect, the same server connection is used by the next channel fetched.
+            Requester.releaseConnection(connection);
             handleConnectionError("API not available with response code: "
-                            + responseCode + " message: " + connection.getResponseMessage(),
+                            + responseCode + " message: " + responseMessage,
                     null);
         } catch (SocketTimeoutException ex) {
             handleConnectionError("Connection timeout", ex);
@@ -22,6 +22,18 @@ public class BaseSettings {
      * The buffer contains select user data, including the client ip address and information that could identify the end user.
      */
     public static final BooleanSetting ENABLE_DEBUG_BUFFER_LOGGING = new BooleanSetting("revanced_enable_debug_buffer_logging", FALSE);
+    /**
+     * Count how often each Litho filter is used and how much time it uses.
+     */
+    public static final BooleanSetting ENABLE_LITHO_FILTER_STATISTICS = new BooleanSetting("revanced_enable_litho_filter_statistics", FALSE);
+    /**
+     * Save all Litho components to a file, to benchmark the Litho filter search without a device.
+     */
+    public static final BooleanSetting ENABLE_LITHO_FILTER_CAPTURE = new BooleanSetting("revanced_enable_litho_filter_capture", FALSE);
+    /**
+     * Reorder Litho filter callbacks of the same pattern, so the callbacks that most often filter are called first.
+     */
+    public static final BooleanSetting LITHO_FILTER_ADAPTIVE_CALLBACK_ORDER = new BooleanSetting("revanced_litho_filter_adaptive_callback_order", FALSE, true);
     public static final BooleanSetting SETTINGS_INITIALIZED = new BooleanSetting("revanced_settings_initialized", FALSE, false, false);
 
     public static final EnumSetting<AppLanguage> REVANCED_LANGUAGE = new EnumSetting<>("revanced_language", AppLanguage.DEFAULT, true);
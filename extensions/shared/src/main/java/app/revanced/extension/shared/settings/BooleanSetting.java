@@ -7,9 +7,24 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("unused")
 public class BooleanSetting extends Setting<Boolean> {
+
+    /**
+     * Incremented every time the value of any boolean setting is set.
+     * Allows caches that depend on boolean settings to detect changes without checking each setting.
+     */
+    private static final AtomicInteger valueChangeCount = new AtomicInteger();
+
+    /**
+     * @return A number that changes every time any boolean setting value is set.
+     */
+    public static int getValueChangeCount() {
+        return valueChangeCount.get();
+    }
+
     public BooleanSetting(String key, Boolean defaultValue) {
         super(key, defaultValue);
     }
@@ -55,11 +70,13 @@ public class BooleanSetting extends Setting<Boolean> {
      */
     public static void privateSetValue(@NonNull BooleanSetting setting, @NonNull Boolean newValue) {
         setting.value = Objects.requireNonNull(newValue);
+        valueChangeCount.incrementAndGet();
     }
 
     @Override
     protected void load() {
         value = preferences.getBoolean(key, defaultValue);
+        valueChangeCount.incrementAndGet();
     }
 
     @Override
@@ -70,12 +87,14 @@ public class BooleanSetting extends Setting<Boolean> {
     @Override
     protected void setValueFromString(@NonNull String newValue) {
         value = Boolean.valueOf(Objects.requireNonNull(newValue));
+        valueChangeCount.incrementAndGet();
     }
 
     @Override
     public void save(@NonNull Boolean newValue) {
         // Must set before saving to preferences (otherwise importing fails to update UI correctly).
         value = Objects.requireNonNull(newValue);
+        valueChangeCount.incrementAndGet();
         preferences.saveBoolean(key, newValue);
     }
 
@@ -31,6 +31,156 @@ public final class ByteTrieSearch extends TrieSearch<byte[]> {
         }
     }
 
+    /**
+     * Compares UTF-8 text without case sensitivity, by folding the case of both the patterns and the searched text.
+     * <p>
+     * Characters are only folded if the folded UTF-8 character uses the same number of bytes,
+     * so match indexes and lengths are the same as the original text.
+     * This includes ASCII and almost all cased letters (Latin, Greek, Cyrillic, Armenian...),
+     * and excludes a few special characters such as the Kelvin sign and the Turkish dotted capital I.
+     */
+    private static final class CaseFoldingByteTrieNode extends TrieNode<byte[]> {
+        CaseFoldingByteTrieNode() {
+            super();
+        }
+
+        CaseFoldingByteTrieNode(char nodeCharacterValue) {
+            super(nodeCharacterValue);
+        }
+
+        @Override
+        TrieNode<byte[]> createNode(char nodeCharacterValue) {
+            return new CaseFoldingByteTrieNode(nodeCharacterValue);
+        }
+
+        @Override
+        char getCharValue(byte[] text, int index) {
+            return (char) foldCase(text, index);
+        }
+
+        @Override
+        int getTextLength(byte[] text) {
+            return text.length;
+        }
+    }
+
+    /**
+     * Folded code points of all 2 byte UTF-8 characters, indexed by code point.
+     * Almost all cased non ASCII letters are 2 bytes, so these are not decoded and folded for every byte searched.
+     */
+    private static final char[] TWO_BYTE_FOLDED_CODE_POINTS = new char[0x800];
+
+    static {
+        for (int codePoint = 0; codePoint < 0x800; codePoint++) {
+            TWO_BYTE_FOLDED_CODE_POINTS[codePoint] = (char) foldCodePoint(codePoint);
+        }
+    }
+
+    /**
+     * @return The case folded code point, or the same code point if folding changes the UTF-8 byte count.
+     */
+    private static int foldCodePoint(int codePoint) {
+        final int folded = Character.toLowerCase(Character.toUpperCase(codePoint));
+        return utf8ByteCount(folded) == utf8ByteCount(codePoint)
+                ? folded
+                : codePoint;
+    }
+
+    private static int utf8ByteCount(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Folds the case of a String the same way the search folds UTF-8 text.
+     * Used to compare phrases with the same case rules as the search.
+     */
+    @NonNull
+    public static String foldCase(@NonNull String text) {
+        final int length = text.length();
+        StringBuilder builder = null;
+        for (int i = 0; i < length; ) {
+            final int codePoint = text.codePointAt(i);
+            final int folded = codePoint < 0x80
+                    ? ((codePoint >= 'A' && codePoint <= 'Z') ? codePoint + ('a' - 'A') : codePoint)
+                    : codePoint < 0x800 ? TWO_BYTE_FOLDED_CODE_POINTS[codePoint] : foldCodePoint(codePoint);
+            if (folded != codePoint && builder == null) {
+                builder = new StringBuilder(length);
+                builder.append(text, 0, i);
+            }
+            if (builder != null) {
+                builder.appendCodePoint(folded);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return builder == null ? text : builder.toString();
+    }
+
+    /**
+     * @return The byte at the index, after folding the case of the UTF-8 character the byte belongs to.
+     */
+    static byte foldCase(byte[] text, int index) {
+        final byte value = text[index];
+        if (value >= 0) { // ASCII.
+            return (value >= 'A' && value <= 'Z')
+                    ? (byte) (value + ('a' - 'A'))
+                    : value;
+        }
+
+        // Find the first byte of the character.
+        int characterStart = index;
+        while ((text[characterStart] & 0xC0) == 0x80) {
+            if (characterStart == 0 || index - characterStart == 3) {
+                return value; // Not valid UTF-8.
+            }
+            characterStart--;
+        }
+
+        final int firstByte = text[characterStart] & 0xFF;
+        final int byteCount;
+        int codePoint;
+        if ((firstByte & 0xE0) == 0xC0) {
+            byteCount = 2;
+            codePoint = firstByte & 0x1F;
+        } else if ((firstByte & 0xF0) == 0xE0) {
+            byteCount = 3;
+            codePoint = firstByte & 0x0F;
+        } else if ((firstByte & 0xF8) == 0xF0) {
+            byteCount = 4;
+            codePoint = firstByte & 0x07;
+        } else {
+            return value;
+        }
+        final int characterEnd = characterStart + byteCount;
+        if (characterEnd <= index || characterEnd > text.length) {
+            return value;
+        }
+        for (int i = characterStart + 1; i < characterEnd; i++) {
+            final int continuation = text[i];
+            if ((continuation & 0xC0) != 0x80) {
+                return value;
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+        }
+
+        final int folded = byteCount == 2
+                ? TWO_BYTE_FOLDED_CODE_POINTS[codePoint]
+                : foldCodePoint(codePoint);
+        if (folded == codePoint) {
+            return value;
+        }
+
+        // Encode only the byte at the index.
+        final int byteIndex = index - characterStart;
+        if (byteIndex == 0) {
+            return switch (byteCount) {
+                case 2 -> (byte) (0xC0 | (folded >> 6));
+                case 3 -> (byte) (0xE0 | (folded >> 12));
+                default -> (byte) (0xF0 | (folded >> 18));
+            };
+        }
+        return (byte) (0x80 | ((folded >> (6 * (byteCount - 1 - byteIndex))) & 0x3F));
+    }
+
     /**
      * Helper method for the common usage of converting Strings to raw UTF-8 bytes.
      */
@@ -46,5 +196,20 @@ public final class ByteTrieSearch extends TrieSearch<byte[]> {
     public ByteTrieSearch(@NonNull byte[]... patterns) {
         super(new ByteTrieNode(), patterns);
     }
-}
 
+    /**
+     * @param useAutomaton If searching uses an Aho-Corasick automaton. See {@link TrieSearch}.
+     */
+    public ByteTrieSearch(boolean useAutomaton, @NonNull byte[]... patterns) {
+        super(new ByteTrieNode(), useAutomaton, patterns);
+    }
+
+    /**
+     * @param useAutomaton If searching uses an Aho-Corasick automaton. See {@link TrieSearch}.
+     * @param ignoreCase   If UTF-8 patterns match text of any casing.
+     *                     One pattern then matches all casings, such as 'mr beast', 'Mr Beast' and 'MR BEAST'.
+     */
+    public ByteTrieSearch(boolean useAutomaton, boolean ignoreCase, @NonNull byte[]... patterns) {
+        super(ignoreCase ? new CaseFoldingByteTrieNode() : new ByteTrieNode(), useAutomaton, patterns);
+    }
+}
@@ -0,0 +1,185 @@
+package app.revanced.extension.shared.utils;
+
+import androidx.annotation.NonNull;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the wire format of a protocol buffer message, without a message schema.
+ * <p>
+ * Used only by debug logging, to show the text fields of a litho buffer with the field path of each text.
+ * Data that is not a valid message is never read past the end index,
+ * and reading stops at the first malformed field.
+ */
+public final class ProtobufReader {
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_FIXED32 = 5;
+
+    private static final int MAXIMUM_VARINT_LENGTH = 10;
+
+    private final byte[] buffer;
+    private int position;
+    private final int endIndex;
+    private boolean malformed;
+
+    private int fieldNumber;
+    private int wireType;
+    private long numericValue;
+    private int valueStart;
+    private int valueEnd;
+
+    /**
+     * @param startIndex Start index of the message, inclusive.
+     * @param endIndex   End index of the message, exclusive.
+     */
+    private ProtobufReader(byte[] buffer, int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex > buffer.length || startIndex > endIndex) {
+            throw new IllegalArgumentException("Invalid range: " + startIndex + " - " + endIndex
+                    + " buffer length: " + buffer.length);
+        }
+        this.buffer = buffer;
+        this.position = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * Reads a varint at the current position.
+     *
+     * @return If the varint is valid.
+     */
+    private boolean readVarint() {
+        long value = 0;
+        for (int shift = 0, i = 0; i < MAXIMUM_VARINT_LENGTH; i++, shift += 7) {
+            if (position >= endIndex) {
+                return false;
+            }
+            final byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                numericValue = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean setMalformed() {
+        malformed = true;
+        position = endIndex;
+        return false;
+    }
+
+    /**
+     * Reads the next field of the message.
+     *
+     * @return True if a field was read.
+     * False if the end of the message was reached or if the data is malformed.
+     */
+    private boolean nextField() {
+        if (position >= endIndex) {
+            return false;
+        }
+        if (!readVarint()) {
+            return setMalformed();
+        }
+        final long tag = numericValue;
+        final long number = tag >>> 3;
+        if (number == 0 || number > Integer.MAX_VALUE) {
+            return setMalformed();
+        }
+        fieldNumber = (int) number;
+        wireType = (int) (tag & 0x7);
+
+        switch (wireType) {
+            case WIRE_TYPE_VARINT -> {
+                valueStart = position;
+                if (!readVarint()) {
+                    return setMalformed();
+                }
+                valueEnd = position;
+            }
+            case WIRE_TYPE_FIXED64, WIRE_TYPE_FIXED32 -> {
+                final int length = wireType == WIRE_TYPE_FIXED64 ? 8 : 4;
+                if (endIndex - position < length) {
+                    return setMalformed();
+                }
+                valueStart = position;
+                valueEnd = position + length;
+                position = valueEnd;
+            }
+            case WIRE_TYPE_LENGTH_DELIMITED -> {
+                if (!readVarint()) {
+                    return setMalformed();
+                }
+                final long length = numericValue;
+                if (length < 0 || length > endIndex - position) {
+                    return setMalformed();
+                }
+                valueStart = position;
+                valueEnd = position + (int) length;
+                position = valueEnd;
+            }
+            default -> {
+                // Groups are deprecated and not used by the app.
+                return setMalformed();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return If the entire range is a message of valid fields.
+     * An empty range is a valid empty message.
+     */
+    public static boolean isValidMessage(@NonNull byte[] buffer, int startIndex, int endIndex) {
+        ProtobufReader reader = new ProtobufReader(buffer, startIndex, endIndex);
+        //noinspection StatementWithEmptyBody
+        while (reader.nextField()) {
+        }
+        return !reader.malformed;
+    }
+
+    /**
+     * Appends all length delimited fields that are printable text, with the field path of each text.
+     * Length delimited fields that are valid messages are searched recursively.
+     *
+     * @param maximumDepth Maximum number of nested messages to search.
+     */
+    public static void appendTextFields(@NonNull StringBuilder builder, @NonNull byte[] buffer,
+                                        int startIndex, int endIndex, int maximumDepth) {
+        appendTextFields(builder, "", new ProtobufReader(buffer, startIndex, endIndex), maximumDepth);
+    }
+
+    private static void appendTextFields(StringBuilder builder, String parentPath,
+                                         ProtobufReader reader, int remainingDepth) {
+        final byte[] buffer = reader.buffer;
+        while (reader.nextField()) {
+            final int start = reader.valueStart;
+            final int end = reader.valueEnd;
+            if (reader.wireType != WIRE_TYPE_LENGTH_DELIMITED || start == end) {
+                continue;
+            }
+            final String path = parentPath + reader.fieldNumber;
+            if (remainingDepth > 0 && isValidMessage(buffer, start, end)) {
+                appendTextFields(builder, path + ".", new ProtobufReader(buffer, start, end), remainingDepth - 1);
+            } else if (isPrintableText(buffer, start, end)) {
+                builder.append(path).append('=')
+                        .append(new String(buffer, start, end - start, StandardCharsets.UTF_8))
+                        .append('❙');
+            }
+        }
+    }
+
+    private static boolean isPrintableText(byte[] buffer, int startIndex, int endIndex) {
+        for (int i = startIndex; i < endIndex; i++) {
+            final int value = buffer[i];
+            // Allow UTF-8 multibyte characters (negative signed values), but no control characters.
+            if (value >= 0 && value < 32) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
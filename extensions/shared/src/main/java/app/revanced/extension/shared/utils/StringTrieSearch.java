@@ -35,4 +35,11 @@ public final class StringTrieSearch extends TrieSearch<String> {
     public StringTrieSearch(@NonNull String... patterns) {
         super(new StringTrieNode(), patterns);
     }
+
+    /**
+     * @param useAutomaton If searching uses an Aho-Corasick automaton. See {@link TrieSearch}.
+     */
+    public StringTrieSearch(boolean useAutomaton, @NonNull String... patterns) {
+        super(new StringTrieNode(), useAutomaton, patterns);
+    }
 }
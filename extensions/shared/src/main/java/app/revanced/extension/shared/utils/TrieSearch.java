@@ -3,14 +3,25 @@ package app.revanced.extension.shared.utils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Searches for a group of different patterns using a trie (prefix tree).
  * Can significantly speed up searching for multiple patterns.
+ * <p>
+ * Optionally the trie can be searched as an Aho-Corasick automaton,
+ * which finds all patterns using a single linear pass over the search text
+ * instead of restarting the search at every index of the text.
+ * <p>
+ * After all patterns are added, the tree can be frozen using {@link #freeze()}.
+ * This compiles the tree into flat primitive arrays that are searched without pointer chasing.
  */
 public abstract class TrieSearch<T> {
 
@@ -124,6 +135,29 @@ public abstract class TrieSearch<T> {
         @Nullable
         private List<TriePatternMatchedCallback<T>> endOfPatternCallback;
 
+        /**
+         * Aho-Corasick failure link. The node for the longest proper suffix
+         * of this node's path that is also a path of the tree.
+         * Only present after {@link #buildAutomaton()} is called.
+         */
+        @Nullable
+        private TrieNode<T> failureLink;
+
+        /**
+         * Aho-Corasick output link. The nearest node in the failure link chain
+         * that is the end of a pattern, or null if no such node exists.
+         * Only present after {@link #buildAutomaton()} is called.
+         */
+        @Nullable
+        private TrieNode<T> outputLink;
+
+        /**
+         * Number of characters between the root and this node, which is also
+         * the length of any pattern that ends at this node.
+         * Only set after {@link #buildAutomaton()} is called.
+         */
+        private int depth;
+
         TrieNode() {
             this.nodeValue = ROOT_NODE_CHARACTER_VALUE;
         }
@@ -215,6 +249,91 @@ public abstract class TrieSearch<T> {
             return nodeValue % arraySize;
         }
 
+        /**
+         * @return The child node for the character, or null if none exists.
+         */
+        @Nullable
+        private TrieNode<T> getChild(char character) {
+            TrieNode<T>[] children = this.children;
+            if (children == null) {
+                return null;
+            }
+            TrieNode<T> child = children[hashIndexForTableSize(children.length, character)];
+            if (child == null || child.nodeValue != character) {
+                return null;
+            }
+            return child;
+        }
+
+        /**
+         * Replaces all compressed leaf paths with regular nodes.
+         * Aho-Corasick failure links require every character to be a node.
+         */
+        private void expandCompressedPaths() {
+            TrieCompressedPath<T> temp = leaf;
+            if (temp != null) {
+                // Same as adding a pattern to a node with a leaf, except the leaf is pushed down until none remain.
+                leaf = null;
+                //noinspection unchecked
+                children = new TrieNode[1];
+                addPattern(temp.pattern, temp.patternStartIndex, temp.patternLength, temp.callback);
+            }
+            if (children != null) {
+                for (TrieNode<T> child : children) {
+                    if (child != null) {
+                        child.expandCompressedPaths();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Converts the tree starting at this root node into an Aho-Corasick automaton,
+         * by adding failure and output links to every node using a breadth first traversal.
+         * <p>
+         * Must be called again if any patterns are added after this is called.
+         */
+        private void buildAutomaton() {
+            expandCompressedPaths();
+
+            TrieNode<T> root = this;
+            root.depth = 0;
+            root.failureLink = null;
+            root.outputLink = null;
+
+            ArrayDeque<TrieNode<T>> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                TrieNode<T> node = queue.remove();
+                TrieNode<T>[] children = node.children;
+                if (children == null) {
+                    continue;
+                }
+                for (TrieNode<T> child : children) {
+                    if (child == null) {
+                        continue;
+                    }
+                    child.depth = node.depth + 1;
+
+                    TrieNode<T> failure = node.failureLink;
+                    TrieNode<T> failureChild = null;
+                    while (failure != null) {
+                        failureChild = failure.getChild(child.nodeValue);
+                        if (failureChild != null) {
+                            break;
+                        }
+                        failure = failure.failureLink;
+                    }
+                    child.failureLink = failureChild == null ? root : failureChild;
+                    child.outputLink = child.failureLink.endOfPatternCallback != null
+                            ? child.failureLink
+                            : child.failureLink.outputLink;
+
+                    queue.add(child);
+                }
+            }
+        }
+
         /**
          * This method is static and uses a loop to avoid all recursion.
          * This is done for performance since the JVM does not optimize tail recursion.
@@ -270,13 +389,64 @@ public abstract class TrieSearch<T> {
             }
         }
 
+        /**
+         * Searches the text in a single pass using the Aho-Corasick failure links.
+         * Callbacks are called in the order the matches end in the search text.
+         *
+         * @param root               Root node of a tree that {@link #buildAutomaton()} was called on.
+         * @param searchText         Text to search for patterns in.
+         * @param searchTextIndex    Start index, inclusive.
+         * @param searchTextEndIndex End index, exclusive.
+         * @return If any pattern matches, and it's associated callback halted the search.
+         */
+        private static <T> boolean matchesAutomaton(final TrieNode<T> root, final T searchText,
+                                                    int searchTextIndex, final int searchTextEndIndex,
+                                                    final Object callbackParameter) {
+            TrieNode<T> node = root;
+
+            for (; searchTextIndex < searchTextEndIndex; searchTextIndex++) {
+                final char character = root.getCharValue(searchText, searchTextIndex);
+                while (true) {
+                    TrieNode<T> child = node.getChild(character);
+                    if (child != null) {
+                        node = child;
+                        break;
+                    }
+                    if (node == root) {
+                        break;
+                    }
+                    node = node.failureLink;
+                }
+
+                TrieNode<T> output = node.endOfPatternCallback != null
+                        ? node
+                        : node.outputLink;
+                while (output != null) {
+                    final int matchLength = output.depth;
+                    final int matchStartIndex = searchTextIndex + 1 - matchLength;
+                    //noinspection DataFlowIssue
+                    for (@Nullable TriePatternMatchedCallback<T> callback : output.endOfPatternCallback) {
+                        if (callback == null) {
+                            return true; // No callback and all matches are valid.
+                        }
+                        if (callback.patternMatched(searchText, matchStartIndex, matchLength, callbackParameter)) {
+                            return true; // Callback confirmed the match.
+                        }
+                    }
+                    output = output.outputLink;
+                }
+            }
+
+            return false;
+        }
+
         /**
          * Gives an approximate memory usage.
          *
          * @return Estimated number of memory pointers used, starting from this node and including all children.
          */
         private int estimatedNumberOfPointersUsed() {
-            int numberOfPointers = 4; // Number of fields in this class.
+            int numberOfPointers = 7; // Number of fields in this class.
             if (leaf != null) {
                 numberOfPointers += 4; // Number of fields in leaf node.
             }
@@ -301,6 +471,340 @@ public abstract class TrieSearch<T> {
         abstract int getTextLength(T text);
     }
 
+    /**
+     * Immutable array representation of a tree, created by {@link TrieSearch#freeze()}.
+     * <p>
+     * Nodes are numbered in breadth first order, with the root node as index zero.
+     * Each node owns a perfect hash table of children (same hashing as {@link TrieNode#children}),
+     * that is stored as a slice of {@link #labels} and {@link #transitions}.
+     */
+    private static final class FrozenTrie<T> {
+        /**
+         * Used only for the get character method.
+         */
+        final TrieNode<T> charValueNode;
+        /**
+         * Start index of each node's child hash table.
+         */
+        final int[] tableStart;
+        /**
+         * Size of each node's child hash table. Zero if the node has no children.
+         */
+        final int[] tableSize;
+        /**
+         * Character of the child node in each hash table slot.
+         */
+        final char[] labels;
+        /**
+         * Child node index of each hash table slot, or -1 if the slot is empty.
+         */
+        final int[] transitions;
+        /**
+         * Aho-Corasick failure link of each node. Only used if the search uses an automaton.
+         */
+        final int[] failureLinks;
+        /**
+         * Aho-Corasick output link of each node, or -1 if none exists.
+         */
+        final int[] outputLinks;
+        /**
+         * Length of the pattern that ends at each node.
+         */
+        final int[] depths;
+        /**
+         * Callbacks of node N are the elements between callbackOffsets[N] (inclusive)
+         * and callbackOffsets[N + 1] (exclusive).
+         */
+        final int[] callbackOffsets;
+
+        /**
+         * Callbacks of all nodes, and how often each callback halted the search.
+         * Replaced as a whole when callbacks are reordered, so searching threads never see a partial reorder.
+         */
+        private static final class CallbackOrder<T> {
+            final TriePatternMatchedCallback<T>[] callbacks;
+            /**
+             * Not thread safe, and some concurrent increments can be lost.
+             * Counts are only used to order the callbacks, so approximate counts are good enough.
+             */
+            final int[] hits;
+
+            CallbackOrder(TriePatternMatchedCallback<T>[] callbacks, int[] hits) {
+                this.callbacks = callbacks;
+                this.hits = hits;
+            }
+        }
+
+        /**
+         * Number of callback hits between each reorder.
+         */
+        private static final int REORDER_INTERVAL_HITS = 1024;
+
+        private volatile CallbackOrder<T> callbackOrder;
+
+        /**
+         * Nodes with more than one callback. Callbacks of other nodes are never reordered.
+         */
+        private final int[] nodesWithMultipleCallbacks;
+
+        /**
+         * If callbacks of the same node are reordered so the callbacks that most often halt the search are called first.
+         */
+        private volatile boolean adaptiveCallbackOrder;
+
+        private int hitsSinceReorder;
+
+        private final AtomicBoolean reordering = new AtomicBoolean();
+
+        /**
+         * @param root Root node of a tree that {@link TrieNode#buildAutomaton()} was called on.
+         */
+        FrozenTrie(TrieNode<T> root) {
+            charValueNode = root;
+
+            List<TrieNode<T>> nodes = new ArrayList<>();
+            Map<TrieNode<T>, Integer> nodeIndexes = new IdentityHashMap<>();
+            nodes.add(root);
+            nodeIndexes.put(root, 0);
+            int tableLength = 0;
+            int callbackCount = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                TrieNode<T> node = nodes.get(i);
+                if (node.endOfPatternCallback != null) {
+                    callbackCount += node.endOfPatternCallback.size();
+                }
+                TrieNode<T>[] children = node.children;
+                if (children == null) {
+                    continue;
+                }
+                tableLength += children.length;
+                for (TrieNode<T> child : children) {
+                    if (child != null) {
+                        nodeIndexes.put(child, nodes.size());
+                        nodes.add(child);
+                    }
+                }
+            }
+
+            final int nodeCount = nodes.size();
+            tableStart = new int[nodeCount];
+            tableSize = new int[nodeCount];
+            labels = new char[tableLength];
+            transitions = new int[tableLength];
+            failureLinks = new int[nodeCount];
+            outputLinks = new int[nodeCount];
+            depths = new int[nodeCount];
+            callbackOffsets = new int[nodeCount + 1];
+            //noinspection unchecked
+            TriePatternMatchedCallback<T>[] callbacks = new TriePatternMatchedCallback[callbackCount];
+            int multipleCallbackNodeCount = 0;
+
+            int tableIndex = 0;
+            int callbackIndex = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                TrieNode<T> node = nodes.get(i);
+                TrieNode<T>[] children = node.children;
+                tableStart[i] = tableIndex;
+                if (children != null) {
+                    tableSize[i] = children.length;
+                    for (TrieNode<T> child : children) {
+                        if (child == null) {
+                            transitions[tableIndex] = -1;
+                        } else {
+                            labels[tableIndex] = child.nodeValue;
+                            transitions[tableIndex] = nodeIndexes.get(child);
+                        }
+                        tableIndex++;
+                    }
+                }
+                failureLinks[i] = node.failureLink == null ? 0 : nodeIndexes.get(node.failureLink);
+                outputLinks[i] = node.outputLink == null ? -1 : nodeIndexes.get(node.outputLink);
+                depths[i] = node.depth;
+                callbackOffsets[i] = callbackIndex;
+                if (node.endOfPatternCallback != null) {
+                    for (TriePatternMatchedCallback<T> callback : node.endOfPatternCallback) {
+                        callbacks[callbackIndex++] = callback;
+                    }
+                    if (node.endOfPatternCallback.size() > 1) {
+                        multipleCallbackNodeCount++;
+                    }
+                }
+            }
+            callbackOffsets[nodeCount] = callbackIndex;
+            callbackOrder = new CallbackOrder<>(callbacks, new int[callbackCount]);
+
+            nodesWithMultipleCallbacks = new int[multipleCallbackNodeCount];
+            for (int i = 0, index = 0; i < nodeCount; i++) {
+                if (callbackOffsets[i + 1] - callbackOffsets[i] > 1) {
+                    nodesWithMultipleCallbacks[index++] = i;
+                }
+            }
+        }
+
+        void setAdaptiveCallbackOrder(boolean enabled) {
+            // Nothing to reorder if every pattern has only one callback.
+            adaptiveCallbackOrder = enabled && nodesWithMultipleCallbacks.length > 0;
+        }
+
+        private void recordHit(CallbackOrder<T> order, int callbackIndex) {
+            order.hits[callbackIndex]++;
+            if (++hitsSinceReorder >= REORDER_INTERVAL_HITS) {
+                reorderCallbacks(order);
+            }
+        }
+
+        /**
+         * Sorts the callbacks of each node by the number of hits, and halves all hits
+         * so the order adapts if the app usage changes.
+         * Callbacks with the same number of hits keep their current order.
+         */
+        private void reorderCallbacks(CallbackOrder<T> current) {
+            if (!reordering.compareAndSet(false, true)) {
+                return; // Another thread is reordering.
+            }
+            try {
+                if (callbackOrder != current) {
+                    return; // Already reordered.
+                }
+                hitsSinceReorder = 0;
+                TriePatternMatchedCallback<T>[] callbacks = current.callbacks.clone();
+                int[] hits = current.hits.clone();
+                for (int node : nodesWithMultipleCallbacks) {
+                    final int start = callbackOffsets[node];
+                    final int end = callbackOffsets[node + 1];
+                    // Insertion sort, since nodes have only a few callbacks.
+                    for (int i = start + 1; i < end; i++) {
+                        TriePatternMatchedCallback<T> callback = callbacks[i];
+                        final int callbackHits = hits[i];
+                        int j = i - 1;
+                        while (j >= start && hits[j] < callbackHits) {
+                            callbacks[j + 1] = callbacks[j];
+                            hits[j + 1] = hits[j];
+                            j--;
+                        }
+                        callbacks[j + 1] = callback;
+                        hits[j + 1] = callbackHits;
+                    }
+                }
+                for (int i = 0, length = hits.length; i < length; i++) {
+                    hits[i] >>>= 1;
+                }
+                callbackOrder = new CallbackOrder<>(callbacks, hits);
+            } finally {
+                reordering.set(false);
+            }
+        }
+
+        /**
+         * @return Index of the child node for the character, or -1 if none exists.
+         */
+        private int getChild(int node, char character) {
+            final int size = tableSize[node];
+            if (size == 0) {
+                return -1;
+            }
+            final int slot = tableStart[node] + TrieNode.hashIndexForTableSize(size, character);
+            if (labels[slot] != character) {
+                return -1;
+            }
+            return transitions[slot];
+        }
+
+        /**
+         * @return If any callback of the node halted the search.
+         */
+        private boolean nodeMatched(CallbackOrder<T> order, int node, T searchText, int matchStartIndex, int matchLength,
+                                    Object callbackParameter) {
+            TriePatternMatchedCallback<T>[] callbacks = order.callbacks;
+            for (int i = callbackOffsets[node], end = callbackOffsets[node + 1]; i < end; i++) {
+                TriePatternMatchedCallback<T> callback = callbacks[i];
+                if (callback == null) {
+                    return true; // No callback and all matches are valid.
+                }
+                if (callback.patternMatched(searchText, matchStartIndex, matchLength, callbackParameter)) {
+                    if (adaptiveCallbackOrder) {
+                        recordHit(order, i);
+                    }
+                    return true; // Callback confirmed the match.
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Same as {@link TrieNode#matches(TrieNode, Object, int, int, Object)}.
+         */
+        boolean matches(final T searchText, final int searchTextStartIndex, final int searchTextEndIndex,
+                        final Object callbackParameter) {
+            final CallbackOrder<T> order = callbackOrder;
+            int node = 0;
+            int searchTextIndex = searchTextStartIndex;
+            while (true) {
+                if (nodeMatched(order, node, searchText, searchTextStartIndex,
+                        searchTextIndex - searchTextStartIndex, callbackParameter)) {
+                    return true;
+                }
+                if (searchTextIndex == searchTextEndIndex) {
+                    return false;
+                }
+                node = getChild(node, charValueNode.getCharValue(searchText, searchTextIndex));
+                if (node < 0) {
+                    return false;
+                }
+                searchTextIndex++;
+            }
+        }
+
+        /**
+         * Same as {@link TrieNode#matchesAutomaton(TrieNode, Object, int, int, Object)}.
+         */
+        boolean matchesAutomaton(final T searchText, int searchTextIndex, final int searchTextEndIndex,
+                                 final Object callbackParameter) {
+            final CallbackOrder<T> order = callbackOrder;
+            int node = 0;
+
+            for (; searchTextIndex < searchTextEndIndex; searchTextIndex++) {
+                final char character = charValueNode.getCharValue(searchText, searchTextIndex);
+                while (true) {
+                    final int child = getChild(node, character);
+                    if (child >= 0) {
+                        node = child;
+                        break;
+                    }
+                    if (node == 0) {
+                        break;
+                    }
+                    node = failureLinks[node];
+                }
+
+                int output = callbackOffsets[node] != callbackOffsets[node + 1]
+                        ? node
+                        : outputLinks[node];
+                while (output >= 0) {
+                    final int matchLength = depths[output];
+                    if (nodeMatched(order, output, searchText, searchTextIndex + 1 - matchLength,
+                            matchLength, callbackParameter)) {
+                        return true;
+                    }
+                    output = outputLinks[output];
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * @return Estimated memory size in bytes.
+         */
+        int estimatedMemorySize() {
+            final int numberOfBytesPerPointer = 4;
+            return Integer.BYTES * (tableStart.length + tableSize.length + transitions.length
+                    + failureLinks.length + outputLinks.length + depths.length + callbackOffsets.length)
+                    + Character.BYTES * labels.length
+                    + numberOfBytesPerPointer * callbackOrder.callbacks.length;
+        }
+    }
+
     /**
      * Root node, and it's children represent the first pattern characters.
      */
@@ -311,9 +815,41 @@ public abstract class TrieSearch<T> {
      */
     private final List<T> patterns = new ArrayList<>();
 
+    /**
+     * If searching uses an Aho-Corasick automaton.
+     */
+    private final boolean useAutomaton;
+
+    /**
+     * If the automaton links are up to date with all added patterns.
+     */
+    private volatile boolean automatonBuilt;
+
+    /**
+     * Array representation of this tree, or null if not frozen.
+     */
+    @Nullable
+    private volatile FrozenTrie<T> frozen;
+
+    /**
+     * If callbacks are reordered by how often they halt the search.
+     */
+    private volatile boolean adaptiveCallbackOrder;
+
     @SafeVarargs
     TrieSearch(@NonNull TrieNode<T> root, @NonNull T... patterns) {
+        this(root, false, patterns);
+    }
+
+    /**
+     * @param useAutomaton If true, searching uses an Aho-Corasick automaton that scans the text once.
+     *                     This uses more memory, but is much faster when searching long text.
+     *                     Callbacks are called in the order the matches end, instead of the order they start.
+     */
+    @SafeVarargs
+    TrieSearch(@NonNull TrieNode<T> root, boolean useAutomaton, @NonNull T... patterns) {
         this.root = Objects.requireNonNull(root);
+        this.useAutomaton = useAutomaton;
         addPatterns(patterns);
     }
 
@@ -342,10 +878,70 @@ public abstract class TrieSearch<T> {
     }
 
     void addPattern(@NonNull T pattern, int patternLength, @Nullable TriePatternMatchedCallback<T> callback) {
+        if (frozen != null) {
+            throw new IllegalStateException("Cannot add patterns after the search is frozen");
+        }
         if (patternLength == 0) return; // Nothing to match
 
         patterns.add(pattern);
         root.addPattern(pattern, 0, patternLength, callback);
+        automatonBuilt = false;
+    }
+
+    /**
+     * Builds the automaton if patterns were added since it was last built.
+     * Building changes the node graph, so every search that walks the graph must call this first.
+     * Then no thread can walk the graph while another thread is building.
+     */
+    private void buildAutomatonIfNeeded() {
+        if (useAutomaton && !automatonBuilt) {
+            buildAutomaton(); // Lazy load.
+        }
+    }
+
+    private synchronized void buildAutomaton() {
+        if (automatonBuilt) {
+            return; // Thread race and another thread already built the automaton.
+        }
+        root.buildAutomaton();
+        automatonBuilt = true; // Must set after the automaton is built.
+    }
+
+    /**
+     * Compiles all added patterns into an immutable array representation,
+     * which is faster to search and uses less memory than the node graph.
+     * <p>
+     * Should be called after all patterns are added. Adding patterns afterwards is not allowed.
+     */
+    public synchronized void freeze() {
+        if (frozen != null) {
+            return;
+        }
+        root.buildAutomaton(); // Sets the depth of each node, and the links if used.
+        FrozenTrie<T> frozenTrie = new FrozenTrie<>(root);
+        frozenTrie.setAdaptiveCallbackOrder(adaptiveCallbackOrder);
+        frozen = frozenTrie;
+        automatonBuilt = true;
+
+        // Release the node graph, since it's no longer used.
+        root.leaf = null;
+        root.children = null;
+        root.endOfPatternCallback = null;
+    }
+
+    /**
+     * If enabled, callbacks of the same pattern are periodically reordered so the callbacks
+     * that most often halt the search are called first.
+     * Callbacks of different patterns are always called in the order the patterns are found in the text.
+     * <p>
+     * Only used after the search is frozen. Callbacks should not depend on the order they are called.
+     */
+    public void setAdaptiveCallbackOrder(boolean enabled) {
+        adaptiveCallbackOrder = enabled;
+        FrozenTrie<T> frozen = this.frozen;
+        if (frozen != null) {
+            frozen.setAdaptiveCallbackOrder(enabled);
+        }
     }
 
     public final boolean matches(@NonNull T textToSearch) {
@@ -378,6 +974,29 @@ public abstract class TrieSearch<T> {
         return matches(textToSearch, root.getTextLength(textToSearch), startIndex, endIndex, callbackParameter);
     }
 
+    /**
+     * Searches only for patterns that match the start of the text.
+     * The tree is walked once, instead of once for every index of the text,
+     * and the automaton links are not used even if this instance uses an automaton.
+     *
+     * @param textToSearch      Text to search through.
+     * @param callbackParameter Optional parameter passed to the callbacks.
+     *                          Matched start index of the callbacks is always zero.
+     * @return If any pattern matched the start of the text, and it's callback halted searching.
+     */
+    public boolean matchesStartOf(@NonNull T textToSearch, @Nullable Object callbackParameter) {
+        if (patterns.isEmpty()) {
+            return false; // No patterns were added.
+        }
+        final int textToSearchLength = root.getTextLength(textToSearch);
+        FrozenTrie<T> frozen = this.frozen;
+        if (frozen != null) {
+            return frozen.matches(textToSearch, 0, textToSearchLength, callbackParameter);
+        }
+        buildAutomatonIfNeeded();
+        return TrieNode.matches(root, textToSearch, 0, textToSearchLength, callbackParameter);
+    }
+
     private boolean matches(@NonNull T textToSearch, int textToSearchLength, int startIndex, int endIndex,
                             @Nullable Object callbackParameter) {
         if (endIndex > textToSearchLength) {
@@ -387,6 +1006,20 @@ public abstract class TrieSearch<T> {
         if (patterns.isEmpty()) {
             return false; // No patterns were added.
         }
+        FrozenTrie<T> frozen = this.frozen;
+        if (frozen != null) {
+            if (useAutomaton) {
+                return frozen.matchesAutomaton(textToSearch, startIndex, endIndex, callbackParameter);
+            }
+            for (int i = startIndex; i < endIndex; i++) {
+                if (frozen.matches(textToSearch, i, endIndex, callbackParameter)) return true;
+            }
+            return false;
+        }
+        if (useAutomaton) {
+            buildAutomatonIfNeeded();
+            return TrieNode.matchesAutomaton(root, textToSearch, startIndex, endIndex, callbackParameter);
+        }
         for (int i = startIndex; i < endIndex; i++) {
             if (TrieNode.matches(root, textToSearch, i, endIndex, callbackParameter)) return true;
         }
@@ -400,6 +1033,10 @@ public abstract class TrieSearch<T> {
         if (patterns.isEmpty()) {
             return 0;
         }
+        FrozenTrie<T> frozen = this.frozen;
+        if (frozen != null) {
+            return (int) Math.ceil(frozen.estimatedMemorySize() / 1024.0);
+        }
         // Assume the device has less than 32GB of ram (and can use pointer compression),
         // or the device is 32-bit.
         final int numberOfBytesPerPointer = 4;
@@ -108,6 +108,14 @@ public final class CommentsFilter extends Filter {
         );
     }
 
+    /**
+     * Comment components are hidden using only the path and boolean settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public boolean isFiltered(String path, @Nullable String identifier, String allValue, byte[] protobufBufferArray,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
@@ -1,15 +1,15 @@
 package app.revanced.extension.youtube.patches.components;
 
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import app.revanced.extension.shared.patches.components.Filter;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
 import app.revanced.extension.shared.settings.StringSetting;
+import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.ResourceUtils;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.NavigationBar;
@@ -72,14 +72,12 @@ public final class FeedVideoViewsFilter extends Filter {
         return false;
     }
 
-    private static final String ARROW = " -> ";
+    private static final String ARROW = "->";
     private static final String VIEWS = "views";
     private static final StringSetting HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER =
             Settings.HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER;
     private static final String HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER_DEFAULT_VALUE =
             "revanced_hide_video_view_counts_multiplier_default_value";
-    private static String[] parts;
-    private static Pattern[] viewCountPatterns = null;
 
     static {
         final String multiplierString = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get();
@@ -90,109 +88,316 @@ public final class FeedVideoViewsFilter extends Filter {
                 HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.save(defaultValue);
             }
         }
-        parts = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get().split("\\n");
     }
 
     /**
-     * Hide videos based on views count
+     * Immutable parser for localized view counts such as "1.2K views" (LTR layout)
+     * or "views 1.2K" (RTL layout), built from the multiplier setting.
+     * <p>
+     * The buffer is scanned as UTF-8 bytes without decoding it to a String,
+     * and nothing is allocated while parsing, so one instance is used by all threads without locking.
      */
-    private synchronized boolean filterByViews(byte[] protobufBufferArray) {
-        final String protobufString = new String(protobufBufferArray);
-        final long lessThan = Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get();
-        final long greaterThan = Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
+    private static final class ViewCountParser {
+        /**
+         * Value returned if the buffer does not contain a view count.
+         */
+        static final double NOT_FOUND = -1;
+        private static final long NO_MATCH = -1;
 
-        if (viewCountPatterns == null) {
-            viewCountPatterns = getViewCountPatterns(parts);
-        }
+        /**
+         * Setting value this parser was built from.
+         */
+        final String rawMultipliers;
+        /**
+         * Multiplier words such as "K" or "M", in the same order as the setting.
+         */
+        private final byte[][] multipliers;
+        private final long[] multiplierValues;
+        /**
+         * Localized words for "views".
+         */
+        private final byte[][] viewWords;
+
+        ViewCountParser(String rawMultipliers) {
+            this.rawMultipliers = rawMultipliers;
+
+            List<byte[]> multiplierList = new ArrayList<>();
+            List<Long> multiplierValueList = new ArrayList<>();
+            List<byte[]> viewWordList = new ArrayList<>();
+            for (String line : rawMultipliers.split("\\n")) {
+                final int arrowIndex = line.indexOf(ARROW);
+                if (arrowIndex < 0) {
+                    continue;
+                }
+                final String word = line.substring(0, arrowIndex).trim();
+                final String value = line.substring(arrowIndex + ARROW.length()).trim();
+                if (word.isEmpty()) {
+                    continue;
+                }
+                final byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+
+                if (value.equals(VIEWS)) {
+                    viewWordList.add(wordBytes);
+                    continue;
+                }
+                try {
+                    multiplierValueList.add(Long.parseLong(value.replaceAll("[^\\d]", "")));
+                    multiplierList.add(wordBytes);
+                } catch (NumberFormatException ex) {
+                    Logger.printDebug(() -> "Ignoring invalid view count multiplier: " + line);
+                }
+            }
+            if (viewWordList.isEmpty()) {
+                viewWordList.add(VIEWS.getBytes(StandardCharsets.UTF_8));
+            }
 
-        for (Pattern pattern : viewCountPatterns) {
-            final Matcher matcher = pattern.matcher(protobufString);
-            if (matcher.find()) {
-                String numString = Objects.requireNonNull(matcher.group(1));
-                double num = parseNumber(numString);
-                String multiplierKey = matcher.group(2);
-                long multiplierValue = getMultiplierValue(parts, multiplierKey);
-                return num * multiplierValue < lessThan || num * multiplierValue > greaterThan;
+            multipliers = multiplierList.toArray(new byte[0][]);
+            multiplierValues = new long[multiplierValueList.size()];
+            for (int i = 0, size = multiplierValueList.size(); i < size; i++) {
+                multiplierValues[i] = multiplierValueList.get(i);
             }
+            viewWords = viewWordList.toArray(new byte[0][]);
         }
 
-        return false;
-    }
-
-    private synchronized double parseNumber(String numString) {
         /**
-         * Some languages have comma (,) as a decimal separator.
-         * In order to detect those numbers as doubles in Java
-         * we convert commas (,) to dots (.).
-         * Unless we find a language that has commas used in
-         * a different manner, it should work.
+         * Same characters as the regex whitespace class.
          */
-        numString = numString.replace(",", ".");
+        private static boolean isWhitespace(byte value) {
+            return value == ' ' || (value >= '\t' && value <= '\r');
+        }
+
+        private static boolean isDigit(byte value) {
+            return value >= '0' && value <= '9';
+        }
+
+        private static boolean isDecimalSeparator(byte value) {
+            return value == '.' || value == ',';
+        }
+
+        private static int skipDigits(byte[] data, int index, int endIndex) {
+            while (index < endIndex && isDigit(data[index])) {
+                index++;
+            }
+            return index;
+        }
+
+        private static int skipWhitespace(byte[] data, int index, int endIndex) {
+            while (index < endIndex && isWhitespace(data[index])) {
+                index++;
+            }
+            return index;
+        }
 
         /**
-         * Some languages have dot (.) as a kilo separator.
-         * So we check with regex if there is a number with 3+
-         * digits after dot (.), we replace it with nothing
-         * to make Java understand the number as a whole.
+         * @return The end index of the fraction digits after the integer,
+         * or the integer end index if the number has no fraction.
          */
-        if (numString.matches("\\d+\\.\\d{3,}")) {
-            numString = numString.replace(".", "");
+        private static int fractionEnd(byte[] data, int integerEnd, int endIndex) {
+            if (integerEnd + 1 < endIndex && isDecimalSeparator(data[integerEnd])
+                    && isDigit(data[integerEnd + 1])) {
+                return skipDigits(data, integerEnd + 1, endIndex);
+            }
+            return integerEnd;
         }
 
-        return Double.parseDouble(numString);
-    }
-
-    private synchronized Pattern[] getViewCountPatterns(String[] parts) {
-        StringBuilder prefixPatternBuilder = new StringBuilder("(\\d+(?:[.,]\\d+)?)\\s?("); // LTR layout
-        StringBuilder secondPatternBuilder = new StringBuilder(); // RTL layout
-        StringBuilder suffixBuilder = getSuffixBuilder(parts, prefixPatternBuilder, secondPatternBuilder);
+        private static boolean regionMatches(byte[] data, int index, int endIndex, byte[] word) {
+            final int length = word.length;
+            if (index + length > endIndex) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (data[index + i] != word[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
-        prefixPatternBuilder.deleteCharAt(prefixPatternBuilder.length() - 1); // Remove the trailing |
-        prefixPatternBuilder.append(")?\\s*");
-        prefixPatternBuilder.append(suffixBuilder.length() > 0 ? suffixBuilder.toString() : VIEWS);
+        /**
+         * Some languages have comma (,) as a decimal separator,
+         * and some languages have dot (.) as a kilo separator.
+         * A separator followed by 3 or more digits is treated as a kilo separator.
+         *
+         * @param fractionEnd Same as integerEnd if the number has no fraction.
+         */
+        private static double parseNumber(byte[] data, int startIndex, int integerEnd, int fractionEnd) {
+            double number = 0;
+            for (int i = startIndex; i < integerEnd; i++) {
+                number = number * 10 + (data[i] - '0');
+            }
+            final int fractionStart = integerEnd + 1;
+            final int fractionLength = fractionEnd - fractionStart;
+            if (fractionLength >= 3) {
+                for (int i = fractionStart; i < fractionEnd; i++) {
+                    number = number * 10 + (data[i] - '0');
+                }
+            } else if (fractionLength > 0) {
+                double fraction = 0;
+                double scale = 1;
+                for (int i = fractionStart; i < fractionEnd; i++) {
+                    fraction = fraction * 10 + (data[i] - '0');
+                    scale *= 10;
+                }
+                number += fraction / scale;
+            }
+            return number;
+        }
 
-        secondPatternBuilder.deleteCharAt(secondPatternBuilder.length() - 1); // Remove the trailing |
-        secondPatternBuilder.append(")?");
+        private boolean viewWordAt(byte[] data, int index, int endIndex) {
+            return viewWordLengthAt(data, index, endIndex) != 0;
+        }
 
-        final Pattern[] patterns = new Pattern[2];
-        patterns[0] = Pattern.compile(prefixPatternBuilder.toString());
-        patterns[1] = Pattern.compile(secondPatternBuilder.toString());
+        /**
+         * @return The length of the view word at the index, or zero if none match.
+         */
+        private int viewWordLengthAt(byte[] data, int index, int endIndex) {
+            for (byte[] viewWord : viewWords) {
+                if (regionMatches(data, index, endIndex, viewWord)) {
+                    return viewWord.length;
+                }
+            }
+            return 0;
+        }
 
-        return patterns;
-    }
+        /**
+         * @return The value of the multiplier at the index, or 1 if none match.
+         */
+        private long multiplierAt(byte[] data, int index, int endIndex) {
+            for (int i = 0, length = multipliers.length; i < length; i++) {
+                if (regionMatches(data, index, endIndex, multipliers[i])) {
+                    return multiplierValues[i];
+                }
+            }
+            return 1;
+        }
 
-    @NonNull
-    private synchronized StringBuilder getSuffixBuilder(String[] parts, StringBuilder prefixPatternBuilder, StringBuilder secondPatternBuilder) {
-        StringBuilder suffixBuilder = new StringBuilder();
+        /**
+         * Matches an optional multiplier followed by the view word.
+         * Multipliers are tried in the order of the setting, and then no multiplier.
+         *
+         * @return The multiplier value, or {@link #NO_MATCH}.
+         */
+        private long multiplierAndViewWordAt(byte[] data, int index, int endIndex) {
+            for (int i = 0, length = multipliers.length; i < length; i++) {
+                byte[] multiplier = multipliers[i];
+                if (regionMatches(data, index, endIndex, multiplier)
+                        && viewWordAt(data, skipWhitespace(data, index + multiplier.length, endIndex), endIndex)) {
+                    return multiplierValues[i];
+                }
+            }
+            return viewWordAt(data, skipWhitespace(data, index, endIndex), endIndex)
+                    ? 1
+                    : NO_MATCH;
+        }
 
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
+        /**
+         * Matches the text after a number, with an optional single whitespace before the multiplier.
+         *
+         * @return The multiplier value, or {@link #NO_MATCH}.
+         */
+        private long suffixAt(byte[] data, int index, int endIndex) {
+            if (index < endIndex && isWhitespace(data[index])) {
+                final long multiplier = multiplierAndViewWordAt(data, index + 1, endIndex);
+                if (multiplier != NO_MATCH) {
+                    return multiplier;
+                }
+            }
+            return multiplierAndViewWordAt(data, index, endIndex);
+        }
 
-            if (pair.length == 2 && !pair1.equals(VIEWS)) {
-                prefixPatternBuilder.append(pair0).append("|");
+        /**
+         * Number followed by an optional multiplier and the view word.
+         */
+        private double findLeftToRight(byte[] data) {
+            final int endIndex = data.length;
+            int index = 0;
+            while (index < endIndex) {
+                if (!isDigit(data[index])) {
+                    index++;
+                    continue;
+                }
+                final int integerEnd = skipDigits(data, index, endIndex);
+                final int fractionEnd = fractionEnd(data, integerEnd, endIndex);
+                if (fractionEnd != integerEnd) {
+                    final long multiplier = suffixAt(data, fractionEnd, endIndex);
+                    if (multiplier != NO_MATCH) {
+                        return parseNumber(data, index, integerEnd, fractionEnd) * multiplier;
+                    }
+                }
+                final long multiplier = suffixAt(data, integerEnd, endIndex);
+                if (multiplier != NO_MATCH) {
+                    return parseNumber(data, index, integerEnd, integerEnd) * multiplier;
+                }
+
+                // No match can start later in the same run of digits.
+                index = integerEnd;
             }
+            return NOT_FOUND;
+        }
 
-            if (pair.length == 2 && pair1.equals(VIEWS)) {
-                suffixBuilder.append(pair0);
-                secondPatternBuilder.append(pair0).append("\\s*").append(prefixPatternBuilder);
+        /**
+         * View word followed by a number and an optional multiplier.
+         */
+        private double findRightToLeft(byte[] data) {
+            final int endIndex = data.length;
+            for (int index = 0; index < endIndex; index++) {
+                final int viewWordLength = viewWordLengthAt(data, index, endIndex);
+                if (viewWordLength == 0) {
+                    continue;
+                }
+                final int numberStart = skipWhitespace(data, index + viewWordLength, endIndex);
+                if (numberStart >= endIndex || !isDigit(data[numberStart])) {
+                    continue;
+                }
+                final int integerEnd = skipDigits(data, numberStart, endIndex);
+                final int fractionEnd = fractionEnd(data, integerEnd, endIndex);
+                int multiplierStart = fractionEnd;
+                if (multiplierStart < endIndex && isWhitespace(data[multiplierStart])) {
+                    multiplierStart++;
+                }
+                return parseNumber(data, numberStart, integerEnd, fractionEnd)
+                        * multiplierAt(data, multiplierStart, endIndex);
             }
+            return NOT_FOUND;
+        }
+
+        /**
+         * @return The view count, or {@link #NOT_FOUND}.
+         */
+        double parseViewCount(byte[] data) {
+            final double viewCount = findLeftToRight(data);
+            return viewCount != NOT_FOUND
+                    ? viewCount
+                    : findRightToLeft(data);
         }
-        return suffixBuilder;
     }
 
-    private synchronized long getMultiplierValue(String[] parts, String multiplier) {
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
+    private static volatile ViewCountParser viewCountParser;
 
-            if (pair.length == 2 && pair0.equals(multiplier) && !pair1.equals(VIEWS)) {
-                return Long.parseLong(pair[1].replaceAll("[^\\d]", ""));
-            }
+    /**
+     * Lock free. If the setting changes then a new parser replaces the old one.
+     * Threads racing to build the same parser is harmless, since the parsers are immutable.
+     */
+    private static ViewCountParser getViewCountParser() {
+        final String rawMultipliers = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get();
+        ViewCountParser parser = viewCountParser;
+        if (parser == null || !parser.rawMultipliers.equals(rawMultipliers)) {
+            parser = new ViewCountParser(rawMultipliers);
+            viewCountParser = parser;
+        }
+        return parser;
+    }
+
+    /**
+     * Hide videos based on views count
+     */
+    private boolean filterByViews(byte[] protobufBufferArray) {
+        final double viewCount = getViewCountParser().parseViewCount(protobufBufferArray);
+        if (viewCount == ViewCountParser.NOT_FOUND) {
+            return false;
         }
 
-        return 1L; // Default value if not found
+        return viewCount < Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get()
+                || viewCount > Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
     }
 }
@@ -15,11 +15,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import app.revanced.extension.shared.patches.components.Filter;
+import app.revanced.extension.shared.patches.components.FilterVerdictCache;
+import app.revanced.extension.shared.patches.components.FilteredVideosWindow;
+import app.revanced.extension.shared.patches.components.LithoFilterPatch;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
 import app.revanced.extension.shared.utils.ByteTrieSearch;
 import app.revanced.extension.shared.utils.Logger;
@@ -42,8 +48,8 @@ import app.revanced.extension.youtube.shared.RootView;
  * - Some layout component residue will remain, such as the video chapter previews for some search results.
  *   These components do not include the video title or channel name, and they
  *   appear outside the filtered components so they are not caught.
- * - Keywords are case sensitive, but some casing variation is manually added.
- *   (ie: "mr beast" automatically filters "Mr Beast" and "MR BEAST").
+ * - Keywords are not case sensitive (ie: "mr beast" also filters "Mr Beast" and "MR BEAST"),
+ *   except for a few special characters whose lowercase and uppercase have different UTF-8 lengths.
  * - Keywords present in the layout or video data cannot be used as filters, otherwise all videos
  *   will always be hidden.  This patch checks for some words of these words.
  * - When using whole word syntax, some keywords may need additional pluralized variations.
@@ -141,20 +147,35 @@ public final class KeywordContentFilter extends Filter {
     private static final int MINIMUM_KEYWORD_LENGTH = 3;
 
     /**
-     * Threshold for {@link #filteredVideosPercentage}
+     * Percentage of videos filtered in {@link FilteredVideosWindow}
      * that indicates all or nearly all videos have been filtered.
      * This should be close to 100% to reduce false positives.
      */
-    private static final float ALL_VIDEOS_FILTERED_THRESHOLD = 0.95f;
+    private static final int ALL_VIDEOS_FILTERED_THRESHOLD_PERCENTAGE = 95;
 
-    private static final float ALL_VIDEOS_FILTERED_SAMPLE_SIZE = 50;
+    /**
+     * Number of most recent videos checked against the threshold.
+     */
+    private static final int ALL_VIDEOS_FILTERED_SAMPLE_SIZE = 50;
 
     private static final long ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS = 60 * 1000; // 60 seconds
 
     private static final int UTF8_MAX_BYTE_COUNT = 4;
 
     /**
-     * Rolling average of how many videos were filtered by a keyword.
+     * Navigation tabs that keyword filtering is used with.
+     */
+    private enum FilteredTab {
+        /**
+         * Home feed, and the results under the video player.
+         */
+        HOME,
+        SEARCH,
+        SUBSCRIPTIONS
+    }
+
+    /**
+     * Recent verdicts of each {@link FilteredTab}, indexed by the tab ordinal.
      * Used to detect if a keyword passes the initial check against {@link #STRINGS_IN_EVERY_BUFFER}
      * but a keyword is still hiding all videos.
      * <p>
@@ -166,73 +187,79 @@ public final class KeywordContentFilter extends Filter {
      * in the home feed and search, because the home feed has a finite amount of content and
      * search results have a lot of extra video junk that is not hidden and interferes with the detection.
      */
-    private volatile float filteredVideosPercentage;
-
-    /**
-     * If filtering is temporarily turned off, the time to resume filtering.
-     * Field is zero if no timeout is in effect.
-     */
-    private volatile long timeToResumeFiltering;
+    private final FilteredVideosWindow[] filteredVideosWindows;
 
     private final StringFilterGroup commentsFilter;
 
     private final StringTrieSearch commentsFilterExceptions = new StringTrieSearch();
 
     /**
-     * The last value of {@link Settings#HIDE_KEYWORD_CONTENT_PHRASES}
-     * parsed and loaded into {@link #bufferSearch}.
-     * Allows changing the keywords without restarting the app.
+     * A parsed keyword phrase.
      */
-    private volatile String lastKeywordPhrasesParsed;
-
-    private volatile ByteTrieSearch bufferSearch;
+    private static final class Keyword {
+        final byte[] bytes;
+        final TrieSearch.TriePatternMatchedCallback<byte[]> callback;
+
+        Keyword(String keyword, boolean isWholeWord) {
+            bytes = keyword.getBytes(StandardCharsets.UTF_8);
+            callback = (textSearched, startIndex, matchLength, callbackParameter) -> {
+                if (isWholeWord && !keywordMatchIsWholeWord(textSearched, startIndex, matchLength)) {
+                    return false;
+                }
 
-    private static void logNavigationState(String state) {
-        // Enable locally to debug filtering. Default off to reduce log spam.
-        final boolean LOG_NAVIGATION_STATE = false;
-        // noinspection ConstantValue
-        if (LOG_NAVIGATION_STATE) {
-            Logger.printDebug(() -> "Navigation state: " + state);
+                Logger.printDebug(() -> (isWholeWord ? "Matched whole keyword: '"
+                        : "Matched keyword: '") + keyword + "'");
+                // noinspection unchecked
+                ((MutableReference<String>) callbackParameter).value = keyword;
+                return true;
+            };
         }
     }
 
     /**
-     * Change first letter of the first word to use title case.
+     * Search of a value of {@link Settings#HIDE_KEYWORD_CONTENT_PHRASES}.
+     * The keywords are never modified after creation, so it can be used by any thread while a replacement is built.
      */
-    private static String titleCaseFirstWordOnly(String sentence) {
-        if (sentence.isEmpty()) {
-            return sentence;
-        }
-        final int firstCodePoint = sentence.codePointAt(0);
-        // In some non English languages title case is different than uppercase.
-        return new StringBuilder()
-                .appendCodePoint(Character.toTitleCase(firstCodePoint))
-                .append(sentence, Character.charCount(firstCodePoint), sentence.length())
-                .toString();
+    private static final class KeywordSearch {
+        final String rawKeywords;
+        final ByteTrieSearch search;
+        /**
+         * Parsed keyword of each setting line.  Lines that are not valid keywords have a null value.
+         */
+        final Map<String, Keyword> keywordsByLine;
+        /**
+         * Results of comment buffers, keyed by the buffer content.
+         * Litho binds the same comment again while scrolling, and the comment is then not searched again.
+         * Results are kept until the keywords change.
+         */
+        final FilterVerdictCache commentVerdicts = new FilterVerdictCache();
+
+        KeywordSearch(String rawKeywords, ByteTrieSearch search, Map<String, Keyword> keywordsByLine) {
+            this.rawKeywords = rawKeywords;
+            this.search = search;
+            this.keywordsByLine = keywordsByLine;
+        }
     }
 
     /**
-     * Uppercase the first letter of each word.
+     * Search of the current keywords.
+     * Allows changing the keywords without restarting the app.
      */
-    private static String capitalizeAllFirstLetters(String sentence) {
-        if (sentence.isEmpty()) {
-            return sentence;
-        }
-
-        final int delimiter = ' ';
-        // Use code points and not characters to handle unicode surrogates.
-        int[] codePoints = sentence.codePoints().toArray();
-        boolean capitalizeNext = true;
-        for (int i = 0, length = codePoints.length; i < length; i++) {
-            final int codePoint = codePoints[i];
-            if (codePoint == delimiter) {
-                capitalizeNext = true;
-            } else if (capitalizeNext) {
-                codePoints[i] = Character.toUpperCase(codePoint);
-                capitalizeNext = false;
-            }
+    @Nullable
+    private volatile KeywordSearch keywordSearch;
+
+    /**
+     * If a background thread is building a replacement of {@link #keywordSearch}.
+     */
+    private final AtomicBoolean keywordSearchUpdating = new AtomicBoolean();
+
+    private static void logNavigationState(String state) {
+        // Enable locally to debug filtering. Default off to reduce log spam.
+        final boolean LOG_NAVIGATION_STATE = false;
+        // noinspection ConstantValue
+        if (LOG_NAVIGATION_STATE) {
+            Logger.printDebug(() -> "Navigation state: " + state);
         }
-        return new String(codePoints, 0, codePoints.length);
     }
 
     /**
@@ -264,25 +291,26 @@ public final class KeywordContentFilter extends Filter {
     /**
      * @return If the phrase will hide all videos. Not an exhaustive check.
      */
-    private static boolean phrasesWillHideAllVideos(@NonNull String[] phrases, boolean matchWholeWords) {
-        for (String phrase : phrases) {
-            for (String commonString : STRINGS_IN_EVERY_BUFFER) {
-                if (matchWholeWords) {
-                    byte[] commonStringBytes = commonString.getBytes(StandardCharsets.UTF_8);
-                    int matchIndex = 0;
-                    while (true) {
-                        matchIndex = commonString.indexOf(phrase, matchIndex);
-                        if (matchIndex < 0) break;
-
-                        if (keywordMatchIsWholeWord(commonStringBytes, matchIndex, phrase.length())) {
-                            return true;
-                        }
-
-                        matchIndex++;
+    private static boolean phraseWillHideAllVideos(@NonNull String phrase, boolean matchWholeWords) {
+        // Keywords are not case sensitive.
+        String foldedPhrase = ByteTrieSearch.foldCase(phrase);
+        for (String commonString : STRINGS_IN_EVERY_BUFFER) {
+            String foldedCommonString = ByteTrieSearch.foldCase(commonString);
+            if (matchWholeWords) {
+                byte[] commonStringBytes = commonString.getBytes(StandardCharsets.UTF_8);
+                int matchIndex = 0;
+                while (true) {
+                    matchIndex = foldedCommonString.indexOf(foldedPhrase, matchIndex);
+                    if (matchIndex < 0) break;
+
+                    if (keywordMatchIsWholeWord(commonStringBytes, matchIndex, foldedPhrase.length())) {
+                        return true;
                     }
-                } else if (Utils.containsAny(commonString, phrases)) {
-                    return true;
+
+                    matchIndex++;
                 }
+            } else if (foldedCommonString.contains(foldedPhrase)) {
+                return true;
             }
         }
 
@@ -398,117 +426,154 @@ public final class KeywordContentFilter extends Filter {
         return phrase.substring(1, phrase.length() - 1);
     }
 
-    private synchronized void parseKeywords() { // Must be synchronized since Litho is multi-threaded.
-        String rawKeywords = Settings.HIDE_KEYWORD_CONTENT_PHRASES.get();
-
-        //noinspection StringEquality
-        if (rawKeywords == lastKeywordPhrasesParsed) {
-            Logger.printDebug(() -> "Using previously initialized search");
-            return; // Another thread won the race, and search is already initialized.
-        }
-
-        ByteTrieSearch search = new ByteTrieSearch();
-        String[] split = rawKeywords.split("\n");
-        if (split.length != 0) {
-            // Linked Set so log statement are more organized and easier to read.
-            // Map is: Phrase -> isWholeWord
-            Map<String, Boolean> keywords = new LinkedHashMap<>(10 * split.length);
-
-            for (String phrase : split) {
-                // Remove any trailing spaces the user may have accidentally included.
-                phrase = phrase.stripTrailing();
-                if (phrase.isBlank()) continue;
-
-                final boolean wholeWordMatching;
-                if (phraseUsesWholeWordSyntax(phrase)) {
-                    if (phrase.length() == 2) {
-                        continue; // Empty "" phrase
-                    }
-                    phrase = stripWholeWordSyntax(phrase);
-                    wholeWordMatching = true;
-                } else if (phrase.length() < MINIMUM_KEYWORD_LENGTH && !isLanguageWithNoSpaces(phrase)) {
-                    // Allow phrases of 1 and 2 characters if using a
-                    // language that does not use spaces between words.
-
-                    // Do not reset the setting. Keep the invalid keywords so the user can fix the mistake.
-                    Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_length", phrase, MINIMUM_KEYWORD_LENGTH));
-                    continue;
-                } else {
-                    wholeWordMatching = false;
+    /**
+     * Parses the keywords setting.
+     * Lines that were already parsed by the previous search are reused and not validated again,
+     * so editing a long list of keywords only validates the changed lines.
+     * Only the validation is incremental. The search tree is always rebuilt with all keywords,
+     * and conflicts between lines are checked with all lines.
+     */
+    private static KeywordSearch parseKeywords(String rawKeywords, @Nullable KeywordSearch previous) {
+        Map<String, Keyword> previousKeywords = previous == null
+                ? Collections.emptyMap()
+                : previous.keywordsByLine;
+        // Linked map so log statement are more organized and easier to read.
+        Map<String, Keyword> keywordsByLine = new LinkedHashMap<>();
+        // Map is: Phrase -> first line that declares the phrase
+        Map<String, String> lineByFoldedPhrase = new HashMap<>();
+
+        for (String line : rawKeywords.split("\n")) {
+            // Remove any trailing spaces the user may have accidentally included.
+            line = line.stripTrailing();
+            if (line.isBlank() || keywordsByLine.containsKey(line)) continue;
+
+            String phrase = line;
+            final boolean wholeWordMatching;
+            if (phraseUsesWholeWordSyntax(phrase)) {
+                if (phrase.length() == 2) {
+                    continue; // Empty "" phrase
                 }
+                phrase = stripWholeWordSyntax(phrase);
+                wholeWordMatching = true;
+            } else {
+                wholeWordMatching = false;
+            }
 
-                // Common casing that might appear.
-                //
-                // This could be simplified by adding case insensitive search to the prefix search,
-                // which is very simple to add to StringTreSearch for Unicode and ByteTrieSearch for ASCII.
-                //
-                // But to support Unicode with ByteTrieSearch would require major changes because
-                // UTF-8 characters can be different byte lengths, which does
-                // not allow comparing two different byte arrays using simple plain array indexes.
-                //
-                // Instead use all common case variations of the words.
-                String[] phraseVariations = {
-                        phrase,
-                        phrase.toLowerCase(),
-                        titleCaseFirstWordOnly(phrase),
-                        capitalizeAllFirstLetters(phrase),
-                        phrase.toUpperCase()
-                };
-                if (phrasesWillHideAllVideos(phraseVariations, wholeWordMatching)) {
-                    String toastMessage;
-                    // If whole word matching is off, but would pass with on, then show a different toast.
-                    if (!wholeWordMatching && !phrasesWillHideAllVideos(phraseVariations, true)) {
-                        toastMessage = "revanced_hide_keyword_toast_invalid_common_whole_word_required";
-                    } else {
-                        toastMessage = "revanced_hide_keyword_toast_invalid_common";
-                    }
+            final boolean isNewLine = !previousKeywords.containsKey(line);
+            if (isNewLine && !phraseIsValid(phrase, wholeWordMatching)) {
+                keywordsByLine.put(line, null);
+                continue;
+            }
+            if (!isNewLine && previousKeywords.get(line) == null) {
+                keywordsByLine.put(line, null); // Invalid, and the user was already shown why.
+                continue;
+            }
 
-                    Utils.showToastLong(str(toastMessage, phrase));
-                    continue;
-                }
+            // Search is not case sensitive, so only one of each casing is needed.
+            // Check if the same phrase is declared both with and without quotes.
+            String foldedPhrase = ByteTrieSearch.foldCase(phrase);
+            String existingLine = lineByFoldedPhrase.get(foldedPhrase);
+            if (existingLine == null) {
+                lineByFoldedPhrase.put(foldedPhrase, line);
+                Keyword keyword = previousKeywords.get(line);
+                keywordsByLine.put(line, keyword != null ? keyword : new Keyword(phrase, wholeWordMatching));
+            } else if (phraseUsesWholeWordSyntax(existingLine) != wholeWordMatching
+                    // Conflicts between two unchanged lines were already shown.
+                    && (isNewLine || !previousKeywords.containsKey(existingLine))) {
+                Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_conflicting", phrase));
+            }
+        }
 
-                for (String variation : phraseVariations) {
-                    // Check if the same phrase is declared both with and without quotes.
-                    Boolean existing = keywords.get(variation);
-                    if (existing == null) {
-                        keywords.put(variation, wholeWordMatching);
-                    } else if (existing != wholeWordMatching) {
-                        Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_conflicting", phrase));
-                        break;
-                    }
-                }
+        ByteTrieSearch search = new ByteTrieSearch(true, true);
+        for (Keyword keyword : keywordsByLine.values()) {
+            if (keyword != null) {
+                search.addPattern(keyword.bytes, keyword.callback);
             }
+        }
+        search.freeze();
 
-            for (Map.Entry<String, Boolean> entry : keywords.entrySet()) {
-                String keyword = entry.getKey();
-                //noinspection ExtractMethodRecommender
-                final boolean isWholeWord = entry.getValue();
-                TrieSearch.TriePatternMatchedCallback<byte[]> callback =
-                        (textSearched, startIndex, matchLength, callbackParameter) -> {
-                            if (isWholeWord && !keywordMatchIsWholeWord(textSearched, startIndex, matchLength)) {
-                                return false;
-                            }
-
-                            Logger.printDebug(() -> (isWholeWord ? "Matched whole keyword: '"
-                                    : "Matched keyword: '") + keyword + "'");
-                            // noinspection unchecked
-                            ((MutableReference<String>) callbackParameter).value = keyword;
-                            return true;
-                        };
-                byte[] stringBytes = keyword.getBytes(StandardCharsets.UTF_8);
-                search.addPattern(stringBytes, callback);
+        Logger.printDebug(() -> "Search using: (" + search.getEstimatedMemorySize() + " KB) keywords: "
+                + keywordsByLine.keySet());
+        return new KeywordSearch(rawKeywords, search, keywordsByLine);
+    }
+
+    /**
+     * @return If the phrase can be used as a keyword. If not, the user is shown why.
+     */
+    private static boolean phraseIsValid(String phrase, boolean wholeWordMatching) {
+        if (!wholeWordMatching && phrase.length() < MINIMUM_KEYWORD_LENGTH && !isLanguageWithNoSpaces(phrase)) {
+            // Allow phrases of 1 and 2 characters if using a
+            // language that does not use spaces between words.
+
+            // Do not reset the setting. Keep the invalid keywords so the user can fix the mistake.
+            Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_length", phrase, MINIMUM_KEYWORD_LENGTH));
+            return false;
+        }
+
+        if (phraseWillHideAllVideos(phrase, wholeWordMatching)) {
+            String toastMessage;
+            // If whole word matching is off, but would pass with on, then show a different toast.
+            if (!wholeWordMatching && !phraseWillHideAllVideos(phrase, true)) {
+                toastMessage = "revanced_hide_keyword_toast_invalid_common_whole_word_required";
+            } else {
+                toastMessage = "revanced_hide_keyword_toast_invalid_common";
             }
 
-            Logger.printDebug(() -> "Search using: (" + search.getEstimatedMemorySize() + " KB) keywords: " + keywords.keySet());
+            Utils.showToastLong(str(toastMessage, phrase));
+            return false;
+        }
+
+        return true;
+    }
+
+    private synchronized KeywordSearch parseInitialKeywords() {
+        KeywordSearch search = keywordSearch;
+        if (search == null) { // Otherwise another thread won the race, and search is already initialized.
+            search = parseKeywords(Settings.HIDE_KEYWORD_CONTENT_PHRASES.get(), null);
+            keywordSearch = search;
+        }
+        return search;
+    }
+
+    /**
+     * @return The keyword search to use. If the keywords changed, this is the previous search
+     *         until a background thread finishes building the new search, so filtering threads never wait.
+     */
+    private KeywordSearch getKeywordSearch() {
+        KeywordSearch search = keywordSearch;
+        if (search == null) {
+            return parseInitialKeywords(); // First use, and there is no previous search to use.
         }
 
-        bufferSearch = search;
-        timeToResumeFiltering = 0;
-        filteredVideosPercentage = 0;
-        lastKeywordPhrasesParsed = rawKeywords; // Must set last.
+        String rawKeywords = Settings.HIDE_KEYWORD_CONTENT_PHRASES.get();
+        // Field is intentionally compared using reference equality.
+        //noinspection StringEquality
+        if (rawKeywords != search.rawKeywords && keywordSearchUpdating.compareAndSet(false, true)) {
+            // User changed the keywords.
+            Utils.runOnBackgroundThread(() -> {
+                try {
+                    keywordSearch = parseKeywords(rawKeywords, keywordSearch);
+                    for (FilteredVideosWindow window : filteredVideosWindows) {
+                        window.reset();
+                    }
+                } catch (Exception ex) {
+                    Logger.printException(() -> "parseKeywords failure", ex);
+                } finally {
+                    keywordSearchUpdating.set(false);
+                }
+            });
+        }
+        return search;
     }
 
     public KeywordContentFilter() {
+        final int tabCount = FilteredTab.values().length;
+        filteredVideosWindows = new FilteredVideosWindow[tabCount];
+        for (int i = 0; i < tabCount; i++) {
+            filteredVideosWindows[i] = new FilteredVideosWindow(ALL_VIDEOS_FILTERED_SAMPLE_SIZE,
+                    ALL_VIDEOS_FILTERED_THRESHOLD_PERCENTAGE, ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS);
+        }
+
         commentsFilterExceptions.addPatterns("engagement_toolbar");
 
         commentsFilter = new StringFilterGroup(
@@ -520,67 +585,84 @@ public final class KeywordContentFilter extends Filter {
         addPathCallbacks(startsWithFilter, containsFilter, commentsFilter);
     }
 
-    private boolean hideKeywordSettingIsActive() {
-        if (timeToResumeFiltering != 0) {
-            if (System.currentTimeMillis() < timeToResumeFiltering) {
-                return false;
-            }
-
-            timeToResumeFiltering = 0;
-            filteredVideosPercentage = 0;
-            Logger.printDebug(() -> "Resuming keyword filtering");
-        }
-
-        final boolean hideHome = Settings.HIDE_KEYWORD_CONTENT_HOME.get();
-        final boolean hideSearch = Settings.HIDE_KEYWORD_CONTENT_SEARCH.get();
-        final boolean hideSubscriptions = Settings.HIDE_KEYWORD_CONTENT_SUBSCRIPTIONS.get();
-
-        if (!hideHome && !hideSearch && !hideSubscriptions) {
-            return false;
-        } else if (hideHome && hideSearch && hideSubscriptions) {
-            return true;
-        }
-
+    /**
+     * @return The tab currently shown, or null if the current tab is only filtered when all keyword filter settings are on.
+     */
+    @Nullable
+    private static FilteredTab getFilteredTab() {
         // Must check player type first, as search bar can be active behind the player.
         if (RootView.isPlayerActive()) {
             // For now, consider the under video results the same as the home feed.
-            return hideHome;
+            return FilteredTab.HOME;
         }
 
         // Must check second, as search can be from any tab.
         if (RootView.isSearchBarActive()) {
-            return hideSearch;
+            return FilteredTab.SEARCH;
         }
 
         NavigationButton selectedNavButton = NavigationButton.getSelectedNavigationButton();
         if (selectedNavButton == null) {
-            return hideHome; // Unknown tab, treat the same as home.
+            return FilteredTab.HOME; // Unknown tab, treat the same as home.
         }
 
         return switch (selectedNavButton) {
-            case HOME, EXPLORE -> hideHome;
-            case SUBSCRIPTIONS -> hideSubscriptions;
+            case HOME, EXPLORE -> FilteredTab.HOME;
+            case SUBSCRIPTIONS -> FilteredTab.SUBSCRIPTIONS;
             // User is in the Library or notifications.
-            default -> false;
+            default -> null;
         };
     }
 
-    private void updateStats(boolean videoWasHidden, @Nullable String keyword) {
-        float updatedAverage = filteredVideosPercentage
-                * ((ALL_VIDEOS_FILTERED_SAMPLE_SIZE - 1) / ALL_VIDEOS_FILTERED_SAMPLE_SIZE);
-        if (videoWasHidden) {
-            updatedAverage += 1 / ALL_VIDEOS_FILTERED_SAMPLE_SIZE;
+    /**
+     * @return The filtered video counts of the current tab,
+     *         or null if keyword filtering is off or temporarily turned off for the current tab.
+     */
+    @Nullable
+    private FilteredVideosWindow getActiveFilteredVideosWindow() {
+        final boolean hideHome = Settings.HIDE_KEYWORD_CONTENT_HOME.get();
+        final boolean hideSearch = Settings.HIDE_KEYWORD_CONTENT_SEARCH.get();
+        final boolean hideSubscriptions = Settings.HIDE_KEYWORD_CONTENT_SUBSCRIPTIONS.get();
+
+        if (!hideHome && !hideSearch && !hideSubscriptions) {
+            return null;
+        }
+
+        FilteredTab tab = getFilteredTab();
+        if (hideHome && hideSearch && hideSubscriptions) {
+            // Every tab is filtered, including the Library and notifications.
+            // Those tabs share the home feed counts.
+            if (tab == null) {
+                tab = FilteredTab.HOME;
+            }
+        } else {
+            if (tab == null) {
+                return null;
+            }
+
+            final boolean hideTab = switch (tab) {
+                case HOME -> hideHome;
+                case SEARCH -> hideSearch;
+                case SUBSCRIPTIONS -> hideSubscriptions;
+            };
+            if (!hideTab) {
+                return null;
+            }
         }
 
-        if (updatedAverage <= ALL_VIDEOS_FILTERED_THRESHOLD) {
-            filteredVideosPercentage = updatedAverage;
+        FilteredVideosWindow window = filteredVideosWindows[tab.ordinal()];
+        return window.isBackingOff(System.currentTimeMillis())
+                ? null
+                : window;
+    }
+
+    private static void updateStats(FilteredVideosWindow window, boolean videoWasHidden, @Nullable String keyword) {
+        if (!window.record(videoWasHidden) || !window.startBackoff(System.currentTimeMillis())) {
             return;
         }
 
         // A keyword is hiding everything.
         // Inform the user, and temporarily turn off filtering.
-        timeToResumeFiltering = System.currentTimeMillis() + ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS;
-
         Logger.printDebug(() -> "Temporarily turning off filtering due to excessively broad filter: " + keyword);
         Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_broad", keyword));
     }
@@ -597,28 +679,45 @@ public final class KeywordContentFilter extends Filter {
             return false;
         }
 
-        // Field is intentionally compared using reference equality.
-        //noinspection StringEquality
-        if (Settings.HIDE_KEYWORD_CONTENT_PHRASES.get() != lastKeywordPhrasesParsed) {
-            // User changed the keywords or whole word setting.
-            parseKeywords();
-        }
+        KeywordSearch search = getKeywordSearch();
 
-        if (matchedGroup != commentsFilter && !hideKeywordSettingIsActive()) {
-            return false;
+        FilteredVideosWindow window = null;
+        if (matchedGroup != commentsFilter) {
+            window = getActiveFilteredVideosWindow();
+            if (window == null) {
+                return false;
+            }
         }
 
         if (exceptions.matches(path)) {
             return false; // Do not update statistics.
         }
 
+        long commentKey = 0;
+        if (matchedGroup == commentsFilter) {
+            commentKey = LithoFilterPatch.bufferContentKeyHash(protobufBufferArray);
+            final int cachedVerdict = search.commentVerdicts.get(commentKey);
+            if (cachedVerdict == FilterVerdictCache.FILTERED) {
+                return super.isFiltered(path, identifier, allValue, protobufBufferArray, matchedGroup, contentType, contentIndex);
+            }
+            if (cachedVerdict == FilterVerdictCache.NOT_FILTERED) {
+                return false;
+            }
+        }
+
         MutableReference<String> matchRef = new MutableReference<>();
-        if (bufferSearch.matches(protobufBufferArray, matchRef)) {
-            updateStats(true, matchRef.value);
+        final boolean filtered = search.search.matches(protobufBufferArray, matchRef);
+        if (matchedGroup == commentsFilter) {
+            search.commentVerdicts.put(commentKey, filtered);
+        }
+        if (window != null) {
+            // Comments are not videos, and are not counted.
+            updateStats(window, filtered, matchRef.value);
+        }
+        if (filtered) {
             return super.isFiltered(path, identifier, allValue, protobufBufferArray, matchedGroup, contentType, contentIndex);
         }
 
-        updateStats(false, null);
         return false;
     }
 }
@@ -26,6 +26,14 @@ public final class LayoutComponentsFilter extends Filter {
         );
     }
 
+    /**
+     * Results depend only on the path and settings.
+     */
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public boolean isFiltered(String path, @Nullable String identifier, String allValue, byte[] protobufBufferArray,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
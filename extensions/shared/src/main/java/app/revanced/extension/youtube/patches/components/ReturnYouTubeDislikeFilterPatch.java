@@ -1,11 +1,9 @@
 package app.revanced.extension.youtube.patches.components;
 
-import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
 import app.revanced.extension.shared.patches.components.ByteArrayFilterGroupList;
@@ -13,7 +11,6 @@ import app.revanced.extension.shared.patches.components.Filter;
 import app.revanced.extension.shared.patches.components.FilterGroup;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
 import app.revanced.extension.shared.utils.Logger;
-import app.revanced.extension.shared.utils.TrieSearch;
 import app.revanced.extension.youtube.patches.utils.ReturnYouTubeDislikePatch;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.VideoInformation;
@@ -35,23 +32,61 @@ import app.revanced.extension.youtube.shared.VideoInformation;
 public final class ReturnYouTubeDislikeFilterPatch extends Filter {
 
     /**
-     * Last unique video id's loaded.
-     * Key is a String represeting the video id.
-     * Value is a ByteArrayFilterGroup used for performing KMP pattern searching.
+     * Number of video id's to keep track of for searching thru the buffer.
+     * A minimum value of 3 should be sufficient, but check a few more just in case.
      */
-    @GuardedBy("itself")
-    private static final Map<String, ByteArrayFilterGroup> lastVideoIds = new LinkedHashMap<>() {
+    private static final int NUMBER_OF_LAST_VIDEO_IDS_TO_TRACK = 5;
+
+    /**
+     * Last unique video id's loaded, and a search for all of them.
+     * Never modified after creation, so filtering threads can search without any locking.
+     */
+    private static final class TrackedVideoIds {
+        static final TrackedVideoIds EMPTY = new TrackedVideoIds(new String[0]);
+
         /**
-         * Number of video id's to keep track of for searching thru the buffer.
-         * A minimum value of 3 should be sufficient, but check a few more just in case.
+         * Oldest id first.
          */
-        private static final int NUMBER_OF_LAST_VIDEO_IDS_TO_TRACK = 5;
+        final String[] videoIds;
+        /**
+         * Searches for all video ids with a single pass over the buffer.
+         * Null if no ids are tracked.
+         */
+        @Nullable
+        final ByteArrayFilterGroup search;
+
+        TrackedVideoIds(String[] videoIds) {
+            this.videoIds = videoIds;
+            if (videoIds.length == 0) {
+                search = null;
+            } else {
+                search = new ByteArrayFilterGroup(null, videoIds);
+                // Build the search now, so filtering threads never wait for it to be built.
+                search.check(EMPTY_BUFFER);
+            }
+        }
 
-        @Override
-        protected boolean removeEldestEntry(Map.Entry eldest) {
-            return size() > NUMBER_OF_LAST_VIDEO_IDS_TO_TRACK;
+        boolean contains(String videoId) {
+            for (String id : videoIds) {
+                if (id.equals(videoId)) return true;
+            }
+            return false;
+        }
+
+        TrackedVideoIds add(String videoId) {
+            final int length = videoIds.length;
+            final int removeCount = length < NUMBER_OF_LAST_VIDEO_IDS_TO_TRACK ? 0 : 1;
+            String[] updated = new String[length - removeCount + 1];
+            System.arraycopy(videoIds, removeCount, updated, 0, length - removeCount);
+            updated[updated.length - 1] = videoId;
+            return new TrackedVideoIds(updated);
         }
-    };
+    }
+
+    private static final byte[] EMPTY_BUFFER = new byte[0];
+
+    private static volatile TrackedVideoIds lastVideoIds = TrackedVideoIds.EMPTY;
+
     private final ByteArrayFilterGroupList videoIdFilterGroup = new ByteArrayFilterGroupList();
 
     public ReturnYouTubeDislikeFilterPatch() {
@@ -100,12 +135,11 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
             if (!isShortAndOpeningOrPlaying || !Settings.RYD_ENABLED.get() || !Settings.RYD_SHORTS.get()) {
                 return;
             }
-            synchronized (lastVideoIds) {
-                if (!lastVideoIds.containsKey(videoId)) {
+            // Only the rare updates are synchronized. Filtering threads use the published ids without locking.
+            synchronized (TrackedVideoIds.class) {
+                if (!lastVideoIds.contains(videoId)) {
                     Logger.printDebug(() -> "New Shorts video id: " + videoId);
-                    // Put a placeholder first
-                    lastVideoIds.put(videoId, null);
-                    lastVideoIds.put(videoId, new ByteArrayFilterGroup(null, videoId));
+                    lastVideoIds = lastVideoIds.add(videoId);
                 }
             }
         } catch (Exception ex) {
@@ -113,32 +147,6 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
         }
     }
 
-    /**
-     * This could use {@link TrieSearch}, but since the patterns are constantly changing
-     * the overhead of updating the Trie might negate the search performance gain.
-     */
-    private static boolean byteArrayContainsString(@NonNull byte[] array, @NonNull String text,
-                                                   @Nullable ByteArrayFilterGroup videoIdFilter) {
-        // If a video filter is available, check it first.
-        if (videoIdFilter != null) {
-            return videoIdFilter.check(array).isFiltered();
-        }
-        for (int i = 0, lastArrayStartIndex = array.length - text.length(); i <= lastArrayStartIndex; i++) {
-            boolean found = true;
-            for (int j = 0, textLength = text.length(); j < textLength; j++) {
-                if (array[i + j] != (byte) text.charAt(j)) {
-                    found = false;
-                    break;
-                }
-            }
-            if (found) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     @Override
     public boolean isFiltered(String path, @Nullable String identifier, String allValue, byte[] protobufBufferArray,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
@@ -161,16 +169,15 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
 
     @Nullable
     private String findVideoId(byte[] protobufBufferArray) {
-        synchronized (lastVideoIds) {
-            for (Map.Entry<String, ByteArrayFilterGroup> entry : lastVideoIds.entrySet()) {
-                final String videoId = entry.getKey();
-                final ByteArrayFilterGroup videoIdFilter = entry.getValue();
-                if (byteArrayContainsString(protobufBufferArray, videoId, videoIdFilter)) {
-                    return videoId;
-                }
-            }
-
+        ByteArrayFilterGroup search = lastVideoIds.search;
+        if (search == null) {
+            return null;
+        }
+        FilterGroup.FilterGroupResult result = search.check(protobufBufferArray);
+        if (!result.isFiltered()) {
             return null;
         }
+        // Video ids are ASCII.
+        return new String(protobufBufferArray, result.getMatchedIndex(), result.getMatchedLength(), StandardCharsets.US_ASCII);
     }
-}
\ No newline at end of file
+}
@@ -12,14 +12,18 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
+import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteDiskCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.ReturnYouTubeDislikeApi;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -79,8 +83,20 @@ public class ReturnYouTubeDislikePatch {
     @Nullable
     private static volatile String lastPrefetchedVideoId;
 
+    /**
+     * How long to wait for more videos in a feed, before prefetching all of them.
+     */
+    private static final long FEED_PREFETCH_DELAY_MILLISECONDS = 500;
+
+    /**
+     * Shorts shown in a feed that are not yet prefetched.
+     */
+    @GuardedBy("itself")
+    private static final Set<String> feedVideoIdsToPrefetch = new LinkedHashSet<>();
+
     public static void onRYDStatusChange() {
         ReturnYouTubeDislikeApi.resetRateLimits();
+        RYDVoteDiskCache.clear();
         // Must remove all values to protect against using stale data
         // if the user enables RYD while a video is on screen.
         clearData();
@@ -553,6 +569,9 @@ public class ReturnYouTubeDislikePatch {
             // and the 'is opening/playing' parameter will be false.
             // This hook will be called again when the Short is actually opened.
             if (videoIdIsShort && (!isShortAndOpeningOrPlaying || !Settings.RYD_SHORTS.get())) {
+                if (!isShortAndOpeningOrPlaying && Settings.RYD_PREFETCH_FEED_SHORTS.get()) {
+                    addFeedVideoIdToPrefetch(videoId);
+                }
                 return;
             }
             final boolean waitForFetchToComplete = !IS_SPOOFING_TO_NON_LITHO_SHORTS_PLAYER
@@ -581,6 +600,33 @@ public class ReturnYouTubeDislikePatch {
         }
     }
 
+    /**
+     * Feed videos are added one at a time as the feed loads,
+     * so all videos added within a short time are prefetched together.
+     */
+    private static void addFeedVideoIdToPrefetch(@NonNull String videoId) {
+        synchronized (feedVideoIdsToPrefetch) {
+            final boolean prefetchScheduled = !feedVideoIdsToPrefetch.isEmpty();
+            if (!feedVideoIdsToPrefetch.add(videoId) || prefetchScheduled) {
+                return;
+            }
+        }
+
+        Utils.runOnMainThreadDelayed(() -> Utils.runOnBackgroundThread(() -> {
+            try {
+                List<String> videoIds;
+                synchronized (feedVideoIdsToPrefetch) {
+                    videoIds = new ArrayList<>(feedVideoIdsToPrefetch);
+                    feedVideoIdsToPrefetch.clear();
+                }
+                Logger.printDebug(() -> "Prefetching RYD for feed videos: " + videoIds);
+                ReturnYouTubeDislike.prefetchVideoIds(videoIds);
+            } catch (Exception ex) {
+                Logger.printException(() -> "prefetchVideoIds failure", ex);
+            }
+        }), FEED_PREFETCH_DELAY_MILLISECONDS);
+    }
+
     /**
      * Injection point.  Uses 'current playing' video id hook.  Always called on main thread.
      */
@@ -32,10 +32,8 @@ import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collection;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -44,7 +42,9 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import app.revanced.extension.shared.returnyoutubedislike.ReturnYouTubeDislikeFetchCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteData;
+import app.revanced.extension.shared.returnyoutubedislike.requests.RYDVoteDiskCache;
 import app.revanced.extension.shared.returnyoutubedislike.requests.ReturnYouTubeDislikeApi;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -78,6 +78,16 @@ public class ReturnYouTubeDislike {
      */
     private static final long CACHE_TIMEOUT_FAILURE_MILLISECONDS = 3 * 60 * 1000; // 3 Minutes
 
+    /**
+     * Maximum number of videos fetched by a single call to {@link #prefetchVideoIds(Collection)}.
+     */
+    private static final int MAX_VIDEO_IDS_TO_PREFETCH = 10;
+
+    /**
+     * Maximum time to wait for each prefetch, before the remaining videos are not prefetched.
+     */
+    private static final long MAX_MILLISECONDS_TO_WAIT_FOR_PREFETCH = 10000;
+
     /**
      * Unique placeholder character, used to detect if a segmented span already has dislikes added to it.
      * Must be something YouTube is unlikely to use, as it's searched for in all usage of Rolling Number.
@@ -90,8 +100,8 @@ public class ReturnYouTubeDislike {
     /**
      * Cached lookup of all video ids.
      */
-    @GuardedBy("itself")
-    private static final Map<String, ReturnYouTubeDislike> fetchCache = new HashMap<>();
+    private static final ReturnYouTubeDislikeFetchCache<ReturnYouTubeDislike> fetchCache =
+            new ReturnYouTubeDislikeFetchCache<>(ReturnYouTubeDislike::new, ReturnYouTubeDislike::isExpired);
 
     /**
      * Used to send votes, one by one, in the same order the user created them.
@@ -395,33 +405,40 @@ public class ReturnYouTubeDislike {
     @NonNull
     public static ReturnYouTubeDislike getFetchForVideoId(@Nullable String videoId) {
         Objects.requireNonNull(videoId);
-        synchronized (fetchCache) {
-            // Remove any expired entries.
-            final long now = System.currentTimeMillis();
-            if (isSDKAbove(24)) {
-                fetchCache.values().removeIf(value -> {
-                    final boolean expired = value.isExpired(now);
-                    if (expired)
-                        Logger.printDebug(() -> "Removing expired fetch: " + value.videoId);
-                    return expired;
-                });
-            } else {
-                final Iterator<Map.Entry<String, ReturnYouTubeDislike>> itr = fetchCache.entrySet().iterator();
-                while (itr.hasNext()) {
-                    final Map.Entry<String, ReturnYouTubeDislike> entry = itr.next();
-                    if (entry.getValue().isExpired(now)) {
-                        Logger.printDebug(() -> "Removing expired fetch: " + entry.getValue().videoId);
-                        itr.remove();
-                    }
-                }
+        return fetchCache.get(videoId);
+    }
+
+    /**
+     * Fetches the votes of videos that are likely to be opened soon, such as videos shown in a feed,
+     * so the votes are already available when a video is opened.
+     * <p>
+     * The RYD API has no endpoint to fetch multiple videos with one call,
+     * so videos are fetched one at a time, and prefetching stops at the first failure or rate limit.
+     * Videos already in the cache are not fetched again.
+     * A failed prefetch is not cached, so it does not delay fetching the video if it is opened.
+     * <p>
+     * Must be called off the main thread, as this waits for each fetch.
+     */
+    public static void prefetchVideoIds(@NonNull Collection<String> videoIds) {
+        Utils.verifyOffMainThread();
+
+        int count = 0;
+        for (String videoId : videoIds) {
+            if (count++ >= MAX_VIDEO_IDS_TO_PREFETCH || ReturnYouTubeDislikeApi.isRateLimitInEffect()) {
+                return;
+            }
+            if (fetchCache.getIfCached(videoId) != null) {
+                continue;
             }
 
             ReturnYouTubeDislike fetch = fetchCache.get(videoId);
-            if (fetch == null) {
-                fetch = new ReturnYouTubeDislike(videoId);
-                fetchCache.put(videoId, fetch);
+            if (fetch.getFetchData(MAX_MILLISECONDS_TO_WAIT_FOR_PREFETCH) == null) {
+                if (fetch.fetchCompleted()) {
+                    fetchCache.remove(videoId, fetch);
+                }
+                Logger.printDebug(() -> "Stopping prefetch after failed fetch: " + videoId);
+                return;
             }
-            return fetch;
         }
     }
 
@@ -429,17 +446,13 @@ public class ReturnYouTubeDislike {
      * Should be called if the user changes dislikes appearance settings.
      */
     public static void clearAllUICaches() {
-        synchronized (fetchCache) {
-            for (ReturnYouTubeDislike fetch : fetchCache.values()) {
-                fetch.clearUICache();
-            }
-        }
+        fetchCache.forEach(ReturnYouTubeDislike::clearUICache);
     }
 
     private ReturnYouTubeDislike(@NonNull String videoId) {
         this.videoId = Objects.requireNonNull(videoId);
         this.timeFetched = System.currentTimeMillis();
-        this.future = Utils.submitOnBackgroundThread(() -> ReturnYouTubeDislikeApi.fetchVotes(videoId));
+        this.future = Utils.submitOnBackgroundThread(() -> RYDVoteDiskCache.fetchVotes(videoId));
     }
 
     private boolean isExpired(long now) {
@@ -0,0 +1,63 @@
+package app.revanced.extension.youtube.settings.preference;
+
+import static app.revanced.extension.shared.utils.StringRef.str;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.preference.Preference;
+import android.util.AttributeSet;
+
+import app.revanced.extension.shared.patches.components.LithoFilterStatistics;
+import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+
+/**
+ * Shows the collected Litho filter statistics, and allows copying or resetting them.
+ */
+@SuppressWarnings({"unused", "deprecation"})
+public class LithoFilterStatisticsPreference extends Preference implements Preference.OnPreferenceClickListener {
+
+    private void init() {
+        setOnPreferenceClickListener(this);
+    }
+
+    public LithoFilterStatisticsPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        init();
+    }
+
+    public LithoFilterStatisticsPreference(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    public LithoFilterStatisticsPreference(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public LithoFilterStatisticsPreference(Context context) {
+        super(context);
+        init();
+    }
+
+    @Override
+    public boolean onPreferenceClick(Preference preference) {
+        try {
+            final String statistics = LithoFilterStatistics.getStatisticsText();
+
+            new AlertDialog.Builder(getContext())
+                    .setTitle(getTitle())
+                    .setMessage(statistics)
+                    .setNeutralButton(str("revanced_extended_settings_import_copy"), (dialog, which) ->
+                            Utils.setClipboard(statistics))
+                    .setNegativeButton(str("revanced_litho_filter_statistics_reset"), (dialog, which) ->
+                            LithoFilterStatistics.reset())
+                    .setPositiveButton(android.R.string.ok, null)
+                    .show();
+        } catch (Exception ex) {
+            Logger.printException(() -> "onPreferenceClick failure", ex);
+        }
+        return true;
+    }
+}
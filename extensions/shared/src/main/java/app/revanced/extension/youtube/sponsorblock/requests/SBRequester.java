@@ -2,10 +2,11 @@ package app.revanced.extension.youtube.sponsorblock.requests;
 
 import static app.revanced.extension.shared.utils.StringRef.str;
 
+import android.util.JsonReader;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -69,23 +70,16 @@ public class SBRequester {
             final int responseCode = connection.getResponseCode();
 
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
-                JSONArray responseArray = Requester.parseJSONArray(connection);
                 final long minSegmentDuration = (long) (Settings.SB_SEGMENT_MIN_DURATION.get() * 1000);
-                for (int i = 0, length = responseArray.length(); i < length; i++) {
-                    JSONObject obj = (JSONObject) responseArray.get(i);
-                    JSONArray segment = obj.getJSONArray("segment");
-                    final long start = (long) (segment.getDouble(0) * 1000);
-                    final long end = (long) (segment.getDouble(1) * 1000);
-
-                    String uuid = obj.getString("UUID");
-                    final boolean locked = obj.getInt("locked") == 1;
-                    String categoryKey = obj.getString("category");
-                    SegmentCategory category = SegmentCategory.byCategoryKey(categoryKey);
-                    if (category == null) {
-                        Logger.printException(() -> "Received unknown category: " + categoryKey); // should never happen
-                    } else if ((end - start) >= minSegmentDuration || category == SegmentCategory.HIGHLIGHT) {
-                        segments.add(new SponsorSegment(category, uuid, start, end, locked));
+                try (JsonReader reader = Requester.parseJsonReader(connection)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        SponsorSegment segment = parseSegment(reader, minSegmentDuration);
+                        if (segment != null) {
+                            segments.add(segment);
+                        }
                     }
+                    reader.endArray();
                 }
                 Logger.printDebug(() -> {
                     StringBuilder builder = new StringBuilder("Downloaded segments:");
@@ -114,6 +108,54 @@ public class SBRequester {
         return segments.toArray(new SponsorSegment[0]);
     }
 
+    /**
+     * Reads a segment object of the get segments response.
+     *
+     * @return The segment, or NULL if the segment is not used.
+     */
+    @Nullable
+    private static SponsorSegment parseSegment(@NonNull JsonReader reader, long minSegmentDuration) throws IOException {
+        long start = -1;
+        long end = -1;
+        String uuid = null;
+        boolean locked = false;
+        String categoryKey = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "segment" -> {
+                    reader.beginArray();
+                    start = (long) (reader.nextDouble() * 1000);
+                    end = (long) (reader.nextDouble() * 1000);
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                }
+                case "UUID" -> uuid = reader.nextString();
+                case "locked" -> locked = reader.nextInt() == 1;
+                case "category" -> categoryKey = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (start < 0 || uuid == null || categoryKey == null) {
+            throw new IllegalStateException("Missing segment data for: " + uuid); // should never happen
+        }
+        SegmentCategory category = SegmentCategory.byCategoryKey(categoryKey);
+        if (category == null) {
+            final String key = categoryKey;
+            Logger.printException(() -> "Received unknown category: " + key); // should never happen
+            return null;
+        }
+        if ((end - start) >= minSegmentDuration || category == SegmentCategory.HIGHLIGHT) {
+            return new SponsorSegment(category, uuid, start, end, locked);
+        }
+        return null;
+    }
+
     public static void submitSegments(@NonNull String videoId, @NonNull String category,
                                       long startTime, long endTime, long videoLength) {
         Utils.verifyOffMainThread();
@@ -127,6 +169,7 @@ public class SBRequester {
             final int responseCode = connection.getResponseCode();
 
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
+                Requester.releaseConnection(connection);
                 Utils.showToastLong(str("revanced_sb_submit_succeeded"));
                 return;
             }
@@ -134,10 +177,10 @@ public class SBRequester {
             String userErrorMessage = switch (responseCode) {
                 case 409 -> str("revanced_sb_submit_failed_duplicate");
                 case 403 -> str("revanced_sb_submit_failed_forbidden",
-                        Requester.parseErrorStringAndDisconnect(connection));
+                        Requester.parseErrorString(connection));
                 case 429 -> str("revanced_sb_submit_failed_rate_limit");
                 case 400 -> str("revanced_sb_submit_failed_invalid",
-                        Requester.parseErrorStringAndDisconnect(connection));
+                        Requester.parseErrorString(connection));
                 default -> str("revanced_sb_submit_failed_unknown_error",
                         responseCode, connection.getResponseMessage());
             };
@@ -161,6 +204,7 @@ public class SBRequester {
         try {
             HttpURLConnection connection = getConnectionFromRoute(SBRoutes.VIEWED_SEGMENT, segment.UUID);
             final int responseCode = connection.getResponseCode();
+            Requester.releaseConnection(connection);
 
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
                 Logger.printDebug(() -> "Successfully sent view count for segment: " + segment);
@@ -196,11 +240,12 @@ public class SBRequester {
                 String userMessage;
                 switch (responseCode) {
                     case HTTP_STATUS_CODE_SUCCESS:
+                        Requester.releaseConnection(connection);
                         Logger.printDebug(() -> "Vote success for segment: " + segment);
                         return;
                     case 403:
                         userMessage = str("revanced_sb_vote_failed_forbidden",
-                                Requester.parseErrorStringAndDisconnect(connection));
+                                Requester.parseErrorString(connection));
                         break;
                     default:
                         userMessage = str("revanced_sb_vote_failed_unknown_error",
@@ -247,6 +292,7 @@ public class SBRequester {
             HttpURLConnection connection = getConnectionFromRoute(SBRoutes.CHANGE_USERNAME, SponsorBlockSettings.getSBPrivateUserID(), username);
             final int responseCode = connection.getResponseCode();
             String responseMessage = connection.getResponseMessage();
+            Requester.releaseConnection(connection);
             if (responseCode == HTTP_STATUS_CODE_SUCCESS) {
                 return null;
             }